@@ -0,0 +1,123 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+* The program AlphaMask.java marks which pixels of an image are solid, one bit per pixel packed 64 to a long, row by row
+* Two masks are tested for overlap a row at a time, 64 pixels per AND, so a whole sprite is checked in a couple of hundred operations
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class AlphaMask {
+
+  // INITIALIZING MASK VARIABLES
+  int intWidth, intHeight;
+  int intWords; // longs per row
+  long[] lngRows; // bit b of word w of a row is the pixel at x = w * 64 + b
+
+  /**
+   * Creates a mask with no solid pixels
+   *
+   * @param intWidth Width of the mask in pixels
+   * @param intHeight Height of the mask in pixels
+   */
+  public AlphaMask(int intWidth, int intHeight) {
+    this.intWidth = intWidth;
+    this.intHeight = intHeight;
+    intWords = (intWidth + 63) >>> 6;
+    lngRows = new long[intWords * intHeight];
+  }
+  /**
+   * Marks a pixel as solid
+   *
+   * @param intX X-coordinate of the pixel
+   * @param intY Y-coordinate of the pixel
+   */
+  void set(int intX, int intY) {
+    lngRows[intY * intWords + (intX >>> 6)] |= 1L << intX;
+  }
+  /**
+   * Makes the mask of a sprite at the size it is drawn, where pixels that are at least half opaque are solid
+   *
+   * @param strPath Path of the sprite image
+   * @param intWidth Width the sprite is drawn at
+   * @param intHeight Height the sprite is drawn at
+   * @return the mask of the sprite
+   */
+  public static AlphaMask fromSprite(String strPath, int intWidth, int intHeight) throws IOException {
+    BufferedImage img = ImageIO.read(new File(strPath));
+    if (img == null) {
+      throw new IOException("cannot read sprite " + strPath);
+    }
+    // scales the sprite the same way it is scaled into the sprite atlas
+    BufferedImage scaled = new BufferedImage(intWidth, intHeight, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = scaled.createGraphics();
+    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    g.drawImage(img, 0, 0, intWidth, intHeight, null);
+    g.dispose();
+    AlphaMask mask = new AlphaMask(intWidth, intHeight);
+    for (int y = 0; y < intHeight; y++) {
+      for (int x = 0; x < intWidth; x++) {
+        if (scaled.getRGB(x, y) >>> 24 >= 128) {
+          mask.set(x, y);
+        }
+      }
+    }
+    return mask;
+  }
+  /**
+   * Gives 64 pixels of one row starting at any x, putting together the two words they straddle
+   * Pixels off the mask are empty
+   *
+   * @param intY Row of the pixels
+   * @param intX X-coordinate of the first pixel
+   * @return the pixels, the first one in the lowest bit
+   */
+  long window(int intY, int intX) {
+    int intWord = Math.floorDiv(intX, 64);
+    int intShift = Math.floorMod(intX, 64);
+    long lngLow = word(intY, intWord) >>> intShift;
+    long lngHigh = intShift == 0 ? 0 : word(intY, intWord + 1) << (64 - intShift);
+    return lngLow | lngHigh;
+  }
+  /**
+   * Gives one word of a row, or an empty word off the mask
+   *
+   * @param intY Row of the word
+   * @param intWord Index of the word in the row
+   * @return the word
+   */
+  long word(int intY, int intWord) {
+    if (intWord < 0 || intWord >= intWords) {
+      return 0;
+    }
+    return lngRows[intY * intWords + intWord];
+  }
+  /**
+   * Checks if a sprite drawn with its top-left corner at a position covers any solid pixel of this mask
+   *
+   * @param sprite The mask of the sprite
+   * @param intX X-coordinate the sprite is drawn at
+   * @param intY Y-coordinate the sprite is drawn at
+   * @return true if a solid pixel of the sprite lies on a solid pixel of this mask, false otherwise
+   */
+  public boolean overlaps(AlphaMask sprite, int intX, int intY) {
+    int intFirstRow = Math.max(0, -intY);
+    int intLastRow = Math.min(sprite.intHeight, intHeight - intY);
+    for (int intRow = intFirstRow; intRow < intLastRow; intRow++) {
+      for (int intWord = 0; intWord < sprite.intWords; intWord++) {
+        long lngSprite = sprite.lngRows[intRow * sprite.intWords + intWord];
+        if (lngSprite != 0 && (lngSprite & window(intY + intRow, intX + intWord * 64)) != 0) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,267 @@
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import javax.imageio.ImageIO;
+
+/**
+* The program CollisionMask.java holds where the player can and cannot stand on one screen, and the zones that set off events
+*
+* A mask is painted as a colour-keyed layer the same size as the screen's background and saved next to it as <name>.mask.png
+* A pixel of the layer stands for the player's top-left corner being at that pixel, not for the pixel being covered,
+* so every check is a single lookup. Transparent pixels are free floor; every other pixel must be one of the zone colours below.
+* The layer is read in cells of intCellSize pixels, taking the colour at each cell's top-left pixel, and each zone is packed into
+* its own bitset. The bitsets are cached next to the layer as <name>.mask.bits so later launches do not decode the PNG.
+*
+* A screen can also have a <name>.shape.png layer, painted in the same colours, marking the pixels each object actually covers
+* on screen. Where it exists, a zone only counts once a visible pixel of the player's sprite is on the object's pixels.
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class CollisionMask {
+
+  // ZONES, each with the colour it is painted in
+  static final int ZONE_NONE = -1;
+  static final int ZONE_WALL = 0; // blocks movement
+  static final int ZONE_DESK = 1; // blocks movement and offers the puzzle on the desk
+  static final int ZONE_HAZARD = 2; // the player falls
+  static final int ZONE_PLANK_1 = 3; // a disappearing plank; the player falls and the plank is gone
+  static final int ZONE_PLANK_2 = 4;
+  static final int ZONE_PLANK_3 = 5;
+  static final int ZONE_ELEVATOR = 6; // inside the elevator doors
+  static final int ZONE_EXIT = 7; // leaves the screen
+  static final int[] intZoneColours = {0xFF0000, 0xFF8000, 0xFF00FF, 0x0000FF, 0x0000C0, 0x000080, 0x00FFFF, 0x00FF00};
+
+  // CACHE FORMAT CONSTANTS
+  static final int MAGIC = 0x4E59434D; // "NYCM"
+  static final int VERSION = 1;
+
+  // INITIALIZING MASK VARIABLES
+  static final int intCellSize = 2; // the player moves 2 pixels per tick, so even positions are looked up exactly
+  int intColumns, intRows;
+  long[][] lngZones = new long[intZoneColours.length][]; // one bitset per zone, row by row, or null if the zone is not painted
+  AlphaMask[] shapes = new AlphaMask[intZoneColours.length]; // pixels covered by each zone on screen, or null if not painted
+
+  /**
+   * Creates a mask with no zones painted
+   *
+   * @param intColumns Number of cells across
+   * @param intRows Number of cells down
+   */
+  public CollisionMask(int intColumns, int intRows) {
+    this.intColumns = intColumns;
+    this.intRows = intRows;
+  }
+  /**
+   * Checks if the player standing at a position is inside a zone
+   * Positions off the mask count as wall, so the edges of the screen never need painting
+   *
+   * @param intZone The zone, one of the ZONE_ constants
+   * @param intX X-coordinate of the player
+   * @param intY Y-coordinate of the player
+   * @return true if the position is in the zone, false otherwise
+   */
+  public boolean isIn(int intZone, int intX, int intY) {
+    int intColumn = Math.floorDiv(intX, intCellSize);
+    int intRow = Math.floorDiv(intY, intCellSize);
+    if (intColumn < 0 || intColumn >= intColumns || intRow < 0 || intRow >= intRows) {
+      return intZone == ZONE_WALL;
+    }
+    long[] lngBits = lngZones[intZone];
+    if (lngBits == null) {
+      return false;
+    }
+    int intCell = intRow * intColumns + intColumn;
+    return (lngBits[intCell >>> 6] & 1L << intCell) != 0;
+  }
+  /**
+   * Checks if the player standing at a position is blocked by a wall or a desk
+   *
+   * @param intX X-coordinate of the player
+   * @param intY Y-coordinate of the player
+   * @return true if the player cannot stand there, false otherwise
+   */
+  public boolean isBlocked(int intX, int intY) {
+    return isIn(ZONE_WALL, intX, intY) || isIn(ZONE_DESK, intX, intY);
+  }
+  /**
+   * Marks a cell as part of a zone
+   *
+   * @param intZone The zone, one of the ZONE_ constants
+   * @param intColumn Column of the cell
+   * @param intRow Row of the cell
+   */
+  void set(int intZone, int intColumn, int intRow) {
+    if (lngZones[intZone] == null) {
+      lngZones[intZone] = new long[(intColumns * intRows + 63) >>> 6];
+    }
+    int intCell = intRow * intColumns + intColumn;
+    lngZones[intZone][intCell >>> 6] |= 1L << intCell;
+  }
+  /**
+   * Loads the mask painted for a background, from its bitset cache if the cache is newer than the painted layer
+   *
+   * @param strPath Path of the colour-keyed layer
+   * @return the mask
+   */
+  public static CollisionMask load(String strPath) throws IOException {
+    File layer = new File(strPath);
+    File cache = new File(strPath.replaceFirst("\\.png$", "") + ".bits");
+    CollisionMask mask = null;
+    if (cache.exists() && cache.lastModified() >= layer.lastModified()) {
+      try {
+        mask = readCache(cache);
+      }
+      catch (IOException e) {
+        // a broken cache is rebuilt from the layer below
+      }
+    }
+    if (mask == null) {
+      mask = fromLayer(layer);
+      try {
+        mask.writeCache(cache);
+      }
+      catch (IOException e) {
+        System.out.println("Could not write collision mask cache: " + e.getMessage());
+      }
+    }
+    File shapeLayer = new File(strPath.replaceFirst("\\.mask\\.png$", ".shape.png"));
+    if (shapeLayer.exists()) {
+      mask.shapes = shapesFromLayer(shapeLayer);
+    }
+    return mask;
+  }
+  /**
+   * Reads the on-screen pixels of every zone painted in a shape layer
+   *
+   * @param layer The painted shape layer
+   * @return the pixels of each zone, or null for zones that are not painted
+   */
+  static AlphaMask[] shapesFromLayer(File layer) throws IOException {
+    BufferedImage img = ImageIO.read(layer);
+    if (img == null) {
+      throw new IOException("cannot read shape layer " + layer);
+    }
+    AlphaMask[] shapes = new AlphaMask[intZoneColours.length];
+    for (int y = 0; y < img.getHeight(); y++) {
+      for (int x = 0; x < img.getWidth(); x++) {
+        int intArgb = img.getRGB(x, y);
+        if (intArgb >>> 24 < 128) {
+          continue;
+        }
+        int intZone = zoneOf(intArgb & 0xFFFFFF);
+        if (intZone == ZONE_NONE) {
+          throw new IOException(layer + " has an unknown colour #" + String.format("%06X", intArgb & 0xFFFFFF) + " at (" + x + ", " + y + ")");
+        }
+        if (shapes[intZone] == null) {
+          shapes[intZone] = new AlphaMask(img.getWidth(), img.getHeight());
+        }
+        shapes[intZone].set(x, y);
+      }
+    }
+    return shapes;
+  }
+  /**
+   * Packs a colour-keyed layer into bitsets
+   *
+   * @param layer The painted layer
+   * @return the mask
+   */
+  static CollisionMask fromLayer(File layer) throws IOException {
+    BufferedImage img = ImageIO.read(layer);
+    if (img == null) {
+      throw new IOException("cannot read collision mask " + layer);
+    }
+    CollisionMask mask = new CollisionMask((img.getWidth() + intCellSize - 1) / intCellSize, (img.getHeight() + intCellSize - 1) / intCellSize);
+    for (int intRow = 0; intRow < mask.intRows; intRow++) {
+      for (int intColumn = 0; intColumn < mask.intColumns; intColumn++) {
+        int intArgb = img.getRGB(intColumn * intCellSize, intRow * intCellSize);
+        // mostly transparent pixels are floor, so soft brush edges do not leave stray cells
+        if (intArgb >>> 24 < 128) {
+          continue;
+        }
+        int intZone = zoneOf(intArgb & 0xFFFFFF);
+        if (intZone == ZONE_NONE) {
+          throw new IOException(layer + " has an unknown colour #" + String.format("%06X", intArgb & 0xFFFFFF) + " at (" + intColumn * intCellSize + ", " + intRow * intCellSize + ")");
+        }
+        mask.set(intZone, intColumn, intRow);
+      }
+    }
+    return mask;
+  }
+  /**
+   * Finds the zone painted in a colour
+   *
+   * @param intRgb The colour, without alpha
+   * @return the zone, or ZONE_NONE if the colour is not a zone colour
+   */
+  static int zoneOf(int intRgb) {
+    for (int i = 0; i < intZoneColours.length; i++) {
+      if (intZoneColours[i] == intRgb) {
+        return i;
+      }
+    }
+    return ZONE_NONE;
+  }
+  /**
+   * Reads a bitset cache written by writeCache()
+   *
+   * @param cache The cache file
+   * @return the mask
+   */
+  static CollisionMask readCache(File cache) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cache)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != intCellSize) {
+        throw new IOException("stale collision mask cache");
+      }
+      CollisionMask mask = new CollisionMask(in.readInt(), in.readInt());
+      int intZones = in.readInt();
+      for (int i = 0; i < intZones; i++) {
+        if (!in.readBoolean()) {
+          continue;
+        }
+        long[] lngBits = new long[(mask.intColumns * mask.intRows + 63) >>> 6];
+        for (int j = 0; j < lngBits.length; j++) {
+          lngBits[j] = in.readLong();
+        }
+        mask.lngZones[i] = lngBits;
+      }
+      return mask;
+    }
+  }
+  /**
+   * Saves the bitsets; written to a temporary file first so a half-written cache is never read
+   *
+   * Cache layout (big-endian): magic, version, cell size, columns, rows, zone count, then for each zone a flag and its bitset if painted
+   *
+   * @param cache The cache file
+   */
+  void writeCache(File cache) throws IOException {
+    File temp = new File(cache.getPath() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(intCellSize);
+      out.writeInt(intColumns);
+      out.writeInt(intRows);
+      out.writeInt(lngZones.length);
+      for (long[] lngBits : lngZones) {
+        out.writeBoolean(lngBits != null);
+        for (int j = 0; lngBits != null && j < lngBits.length; j++) {
+          out.writeLong(lngBits[j]);
+        }
+      }
+    }
+    Files.move(temp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
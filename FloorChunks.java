@@ -0,0 +1,120 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+
+import javax.imageio.ImageIO;
+
+/**
+* The program FloorChunks.java describes a floor background that is cut into a grid of square chunks, so a floor can be
+* many screens wide while only the chunks near the camera are ever decoded
+*
+* A chunked background is a folder next to the background's PNG, <name>.chunks, holding level.txt and one PNG per chunk
+* named <column>_<row>.png. level.txt is a single line with the floor's width and height in pixels and the chunk size.
+* The floor's collision mask is painted at the floor's full size as usual, and sets how far the camera can scroll.
+* Running main() on a full-size background cuts it into a chunked background.
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class FloorChunks {
+
+  // INITIALIZING FLOOR VARIABLES
+  static final int intDefaultChunkSize = 256;
+  String strFolder; // relative to the sketch folder, like the background paths
+  int intWidth, intHeight, intChunkSize;
+  int intColumns, intRows;
+
+  /**
+   * Computes input folder and sizes and localizes in terms of the class
+   *
+   * @param strFolder Folder holding the chunks
+   * @param intWidth Width of the floor in pixels
+   * @param intHeight Height of the floor in pixels
+   * @param intChunkSize Width and height of a chunk in pixels
+   */
+  public FloorChunks(String strFolder, int intWidth, int intHeight, int intChunkSize) {
+    this.strFolder = strFolder;
+    this.intWidth = intWidth;
+    this.intHeight = intHeight;
+    this.intChunkSize = intChunkSize;
+    intColumns = (intWidth + intChunkSize - 1) / intChunkSize;
+    intRows = (intHeight + intChunkSize - 1) / intChunkSize;
+  }
+  /**
+   * Gives the folder a background is cut into
+   *
+   * @param strBackgroundPath Path of the background's PNG
+   * @return path of the chunk folder
+   */
+  static String folderOf(String strBackgroundPath) {
+    return strBackgroundPath.replaceFirst("\\.png$", "") + ".chunks";
+  }
+  /**
+   * Reads how a background is cut into chunks
+   *
+   * @param sketchFolder Folder the background paths are relative to
+   * @param strBackgroundPath Path of the background's PNG
+   * @return the chunked floor, or null if the background has not been cut into chunks
+   */
+  public static FloorChunks load(File sketchFolder, String strBackgroundPath) throws IOException {
+    String strFolder = folderOf(strBackgroundPath);
+    File level = new File(sketchFolder, strFolder + "/level.txt");
+    if (!level.exists()) {
+      return null;
+    }
+    String[] strParts = new String(Files.readAllBytes(level.toPath())).trim().split("\\s+");
+    if (strParts.length != 3) {
+      throw new IOException(level + " should hold the width, height and chunk size of the floor");
+    }
+    try {
+      return new FloorChunks(strFolder, Integer.parseInt(strParts[0]), Integer.parseInt(strParts[1]), Integer.parseInt(strParts[2]));
+    }
+    catch (NumberFormatException e) {
+      throw new IOException(level + " should hold the width, height and chunk size of the floor", e);
+    }
+  }
+  /**
+   * Gives the path of a chunk's PNG
+   *
+   * @param intChunk Index of the chunk, row by row
+   * @return path of the chunk relative to the sketch folder
+   */
+  public String chunkPath(int intChunk) {
+    return strFolder + "/" + intChunk % intColumns + "_" + intChunk / intColumns + ".png";
+  }
+  /**
+   * Cuts a full-size background into a chunked background next to it
+   *
+   * @param args The background's PNG, then optionally the chunk size
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("usage: FloorChunks <background.png> [chunk size]");
+      return;
+    }
+    int intChunkSize = args.length > 1 ? Integer.parseInt(args[1]) : intDefaultChunkSize;
+    BufferedImage img = ImageIO.read(new File(args[0]));
+    if (img == null) {
+      throw new IOException("cannot read background " + args[0]);
+    }
+    FloorChunks floor = new FloorChunks(folderOf(args[0]), img.getWidth(), img.getHeight(), intChunkSize);
+    File folder = new File(floor.strFolder);
+    if (!folder.isDirectory() && !folder.mkdirs()) {
+      throw new IOException("cannot make " + folder);
+    }
+    for (int intChunk = 0; intChunk < floor.intColumns * floor.intRows; intChunk++) {
+      int intX = intChunk % floor.intColumns * intChunkSize;
+      int intY = intChunk / floor.intColumns * intChunkSize;
+      // chunks on the right and bottom edges are cut short rather than padded
+      BufferedImage chunk = img.getSubimage(intX, intY, Math.min(intChunkSize, img.getWidth() - intX), Math.min(intChunkSize, img.getHeight() - intY));
+      ImageIO.write(chunk, "png", new File(floor.chunkPath(intChunk)));
+    }
+    try (PrintWriter out = new PrintWriter(new File(folder, "level.txt"))) {
+      out.println(floor.intWidth + " " + floor.intHeight + " " + intChunkSize);
+    }
+    System.out.println("cut " + args[0] + " into " + floor.intColumns + " by " + floor.intRows + " chunks in " + folder);
+  }
+}
@@ -0,0 +1,1749 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+* The program GameCore.java holds the rules and state of the "ESCAPE THE NEW YORK TIMES" game
+* It never draws anything and needs no window, so it can be ticked by Sketch.java or run headless by bots, replays and load tests
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class GameCore {
+
+  // This interface feeds input events into the game at the start of every tick
+  interface InputSource {
+    /**
+     * Passes every input event that has arrived since the last tick to the game
+     *
+     * @param game The game receiving the input
+     */
+    void poll(GameCore game);
+  }
+
+  // This class is a clickable rectangle; Sketch.java draws a button over it
+  static class Hitbox {
+    // Initializing class specific variables
+    float fltX, fltY, fltW, fltH;
+    /**
+     * Computes input x, y, w and h values and localizes in terms of the class
+     *
+     * @param fltX x-coordinate of the hitbox
+     * @param fltY y-coordinate of the hitbox
+     * @param fltW Width of the hitbox
+     * @param fltH Height of the hitbox
+     */
+    Hitbox(float fltX, float fltY, float fltW, float fltH) {
+      this.fltX = fltX;
+      this.fltY = fltY;
+      this.fltW = fltW;
+      this.fltH = fltH;
+    }
+    /**
+     * Checks if a point is inside the hitbox
+     *
+     * @param fltPointX X-coordinate of the point
+     * @param fltPointY Y-coordinate of the point
+     * @return true if the point is inside the hitbox, false otherwise
+     */
+    boolean contains(float fltPointX, float fltPointY) {
+      return fltPointX >= fltX && fltPointX <= fltX + fltW && fltPointY >= fltY && fltPointY <= fltY + fltH;
+    }
+  }
+
+  // KEY CODES, matching the ones Processing reports
+  static final int UP = 38;
+  static final int DOWN = 40;
+  static final int LEFT = 37;
+  static final int RIGHT = 39;
+  static final int SHIFT = 16;
+  static final char BACKSPACE = 8;
+  static final char ENTER = '\n';
+
+  // INPUT EVENT TYPES, shared by the input queue, the recorder and the replayer
+  static final int EVENT_KEY_PRESSED = 0; // character, key code
+  static final int EVENT_KEY_RELEASED = 1; // key code
+  static final int EVENT_MOUSE_PRESSED = 2; // x, y
+  static final int EVENT_START_ENABLED = 3; // 1 once the start button may be used, 0 otherwise
+  static final int EVENT_CLICK_CAMERA = 4; // left and top edge of the floor shown on screen when the next click was made
+
+  // DIRECTIONS THE PLAYER CAN FACE
+  static final int FACING_FORWARD = 0;
+  static final int FACING_BACKWARD = 1;
+  static final int FACING_LEFT = 2;
+  static final int FACING_RIGHT = 3;
+
+  // INITIALIZING INJECTED VARIABLES
+  IntSupplier clock; // milliseconds since some fixed point, used by the in-game clock
+  Random rng;
+  InputSource input;
+  InputRecorder recorder; // sees every input event the game applies, or null when nothing is being recorded
+  int width = 800;
+  int height = 600;
+
+  // INITIALIZING TICK VARIABLES
+  int intTickRate = 120; // ticks per second the speeds below are tuned for
+  long lngTicks = 0;
+
+  // INITIALIZING SCREEN RULE VARIABLES
+  ScreenRules[] rules; // indexed by intScreenNumber
+  int intScreenNumber = 0; // 0 = Intro, 1 = Setting1, 2 = Game1, 3 = Transfer1, 4 = Setting2, 5 = Game2, 6 = Setting3, 7 = Game3, 8 = Transfer2, 9 = Ending
+  boolean isStartEnabled = true; // the start button only works once this is set, so the renderer can hold it until assets are loaded
+
+  // INITIALIZING BUTTON AND POP UP VARIABLES
+  Hitbox startHitbox = new Hitbox(width / 2 - 80, height / 2 - 60, 200, 50);
+  Hitbox difficultyHitbox = new Hitbox(width / 2 - 102, 360, 240, 50);
+  Hitbox highscoreHitbox = new Hitbox(width / 2 - 102, 300, 240, 50);
+  Hitbox gameHitbox = new Hitbox(width / 2 - 100, height / 2 + 90, 200, 50);
+  Hitbox infoHitbox = new Hitbox(width - 100, 10, 80, 50);
+  Hitbox backHitbox = new Hitbox(630, height / 2 + 184, 100, 50);
+  Hitbox playAgainHitbox = new Hitbox(width / 2 - 120, height / 2 + 130, 200, 60);
+  boolean showPopup = false; // screen specific pop up info screen
+  boolean showWinPopup = false;
+  boolean showLosePopup = false;
+  boolean isSwitchButtonDisplayed;
+  boolean isScreenFaded;
+
+  // INITIALIZING BROKEN BRIDGE GAME VARIABLES
+  boolean isPlank1Show = true;
+  boolean isPlank2Show = true;
+  boolean isPlank3Show = true;
+  float fltFallingAlpha = 0f;
+
+  // INITIALIZING WORDLE GAME VARIABLES
+  int intGridSizeX = 5;
+  int intGridSizeY = 6;
+  static final String[][] strWordList = { // shared by every game in the JVM and never changed
+    {"HITCH", "RURAL", "CRAIC", "ERGOT", "OUIJA"},
+    {"CREST", "SCHWA", "GLITZ", "ZEBEC", "PSYCH"},
+    {"LYMPH", "WALTZ", "XYLEM", "GLYPH", "NYMPH"}
+  };
+  static final String strDictionaryPath = "data/WordleWords.txt";
+  static WordleDictionary wordleDictionary; // every accepted guess, loaded once and shared by every game in the JVM
+  WordleDictionary dictionary;
+  static final int intInvalidShowTicks = 120; // how long "Not in word list" shows after a guess that is not a word
+  static final int intShakeTicks = 48; // how much of that time the row shakes for
+  int intInvalidTicks; // ticks left of the message, or 0 when it is not showing
+  static final int MARK_ABSENT = 0; // the letter is not in the target word, or every copy of it is already marked
+  static final int MARK_PRESENT = 1; // the letter is in the target word somewhere else
+  static final int MARK_CORRECT = 2; // the letter is in the right place
+  static final int[][] intPatternMarks = buildPatternMarks(); // the mark of each letter of every pattern, for drawing
+  static final int intSolvedPattern = 242; // every letter correct
+  String strTargetWord;
+  String[] strGuesses;
+  int[] intRowPatterns; // the marks of each checked row as a base-3 number, the first letter in the lowest digit
+  int intCurrentRow;
+  boolean isGameOver;
+  boolean isGameVictory = false;
+  int intWordleDifficulty = 0;
+
+  // INITIALIZING CONNECTIONS GAME VARIABLES
+  // Each set lists its words in the scrambled order they are shown in, then its groups with the category name last
+  // Like the Wordle words, the sets are shared by every game in the JVM and never changed
+  static final String[][][] strIncorrectSets = {
+    {
+      {"TAPE", "GOOD", "RIVET", "PETALS"},
+      {"PLEATS", "FILM", "ENGROSS", "WOMAN"},
+      {"RECORD", "STAPLE", "SHOOT", "PENNY"},
+      {"HOLD", "ABSORB", "PLEASE", "PASTEL"}
+    },
+    {
+      {"SICK", "KIND", "DRIFT", "TENDER"},
+      {"STYLE", "RING", "NICE", "SWEET"},
+      {"POINT", "SORT", "COOL", "WING"},
+      {"MESSAGE", "TYPE", "STICK", "IDEA"}
+    }
+  };
+  static final String[][][] strCorrectSets = {
+    {
+      {"ABSORB", "ENGROSS", "HOLD", "RIVET", "Grab one’s attention (EASY)"},
+      {"FILM", "RECORD", "SHOOT", "TAPE", "Document with video (MODERATE)"},
+      {"PASTEL", "PETALS", "PLEATS", "STAPLE", "Anagrams (HARD)"},
+      {"GOOD", "PENNY", "PLEASE", "WOMAN", "Pretty ____ (EXTREMELY HARD)"}
+    },
+    {
+      {"COOL", "NICE", "SICK", "SWEET", "Awesome! (EASY)"},
+      {"KIND", "SORT", "STYLE", "TYPE", "Variety (MODERATE)"},
+      {"DRIFT", "IDEA", "MESSAGE", "POINT", "Gist (HARD)"},
+      {"RING", "STICK", "TENDER", "WING", "Fried Appetizer: Informally (EXTREMELY HARD)"}
+    }
+  };
+  int intConnectionsSet;
+  String[][] strIncorrectGroups;
+  String[][] strCorrectGroups;
+
+  ArrayList<String> selectedWords = new ArrayList<>();
+  boolean[][] selectedBoxes = new boolean[4][4];
+  boolean[][] solvedGroups = new boolean[4][4];
+  String strMessage = "";
+  int intLives = 4;
+
+  // INITIALIZING PLAYER VARIABLES
+  int intPlayerX, intPlayerY;
+  int intPrevPlayerX, intPrevPlayerY; // position at the start of the current tick, for smoothing between ticks
+  float fltWalkSpeed = 2f; // pixels per tick, 240 per second
+  float fltSprintSpeed = 4f; // pixels per tick while shift is held
+  float fltCarryX, fltCarryY; // parts of a pixel moved but not yet added to the position
+  SpatialGrid.Hit hit = new SpatialGrid.Hit(); // reused by every sweep of this game
+  int intFacing = FACING_FORWARD;
+
+  boolean isUpPressed = false;
+  boolean isDownPressed = false;
+  boolean isLeftPressed = false;
+  boolean isRightPressed = false;
+  boolean isSprintPressed = false;
+
+  // INITIALIZING CLICK-TO-MOVE VARIABLES
+  static final boolean[] isClickToMove = {false, true, false, true, true, false, true, false, true, false}; // floor screens by intScreenNumber; not the bridge, where a path would give the puzzle away
+  static final int intSearchBudget = 2000; // cells a path search may expand per tick; a whole floor is 7500
+  PathFinder[] pathFinders = new PathFinder[isClickToMove.length]; // made on the first click on each floor
+  int[] intPath; // cells to walk through to the clicked spot, or null while the way is still being looked for
+  int intPathStep; // index in intPath of the next cell to walk to
+  int intTargetX, intTargetY; // where the clicked spot puts the player
+  boolean isPathing; // the player is walking to a click
+  int intClickCameraX, intClickCameraY; // camera the screen was drawn with when the next click was made
+  boolean isClickCameraSet; // false if the click came without its camera, so the camera at the tick position is used
+
+  // INITIALIZING EXCLAMATION MARK AND FADE VARIABLES
+  int intExclamationX = 440;
+  int intExclamationY = 280;
+  float fltExclamAlpha;
+  float fltFadeSpeed = 2.5f; // alpha per tick, 300 per second
+  float fltScreenFadeSpeed = 1.6f; // alpha per tick of the elevator and falling fades, 192 per second
+  float fltElevatorAlpha = 0f;
+  boolean isElevatorOpen;
+
+  // INITIALIZING COLLISION VARIABLES
+  // collision layers painted over each screen's background, or null for screens without movement
+  static final String[] strMaskPaths = {
+    null, "images/BossRoom.mask.png", "images/PlankWalk.mask.png", "images/TopFloor.mask.png", "images/Floor2.mask.png",
+    null, "images/Floor1.mask.png", null, "images/GroundFloor.mask.png", null
+  };
+  static final int intBlockingZones = 1 << CollisionMask.ZONE_WALL | 1 << CollisionMask.ZONE_DESK; // zones the player cannot enter
+  static final int intFallingZones = 1 << CollisionMask.ZONE_HAZARD | 1 << CollisionMask.ZONE_PLANK_1 | 1 << CollisionMask.ZONE_PLANK_2 | 1 << CollisionMask.ZONE_PLANK_3;
+  static final float DIAGONAL = 0.70710677f; // 1 / sqrt(2)
+  static final String[] strPlayerSpritePaths = {"images/NerdFace.png", "images/NerdFaceBack.png", "images/NerdFaceLeft.png", "images/NerdFaceRight.png"}; // by intFacing
+  static final int intPlayerWidth = 50; // size the player sprite is drawn at
+  static final int intPlayerHeight = 80;
+  static AlphaMask[] playerMasks; // the visible pixels of each facing of the player sprite
+  static CollisionMask[] screenMasks; // loaded once and shared by every game in the JVM
+  static SpatialGrid[] screenGrids; // the colliders and trigger zones of each mask, indexed by where they are
+  CollisionMask[] masks;
+  SpatialGrid[] grids;
+  boolean isCollidingDesk; // the last move was blocked by the desk
+  static final int[] intTriggerZones = {
+    CollisionMask.ZONE_DESK, CollisionMask.ZONE_HAZARD, CollisionMask.ZONE_PLANK_1, CollisionMask.ZONE_PLANK_2,
+    CollisionMask.ZONE_PLANK_3, CollisionMask.ZONE_ELEVATOR, CollisionMask.ZONE_EXIT
+  }; // zones whose enter, stay and exit are passed to the screen rules
+  int[] intTriggerObjects = newTriggerObjects(); // the object of each zone the player is in, or ZONE_NONE
+  int[] intNextObjects = newTriggerObjects();
+  int intTriggerScreen = -1, intTriggerX, intTriggerY, intTriggerFacing; // where the player was when the zones were last worked out
+  boolean isTriggerDesk;
+
+  // INITIALIZING IN-GAME CLOCK VARIABLES
+  int intStartTime;
+  int intElapsedTime;
+  int intShownSecond = -1;
+  String strTime = "";
+
+  // HIGHSCORE VARIABLES
+  ArrayList<String> strHighScores = new ArrayList<>();
+  ArrayList<Integer> intHighScoreDifficulty = new ArrayList<>();
+  boolean[] isBestInCategory = new boolean[5];
+  int intHighScoreVersion = 0; // goes up whenever the list changes, so a renderer knows to redraw it
+
+  /**
+   * Creates a game on the intro screen
+   *
+   * @param clock Gives the current time in milliseconds for the in-game clock
+   * @param rng Picks the Connections set and the Wordle answers
+   * @param input Feeds input events in at the start of each tick, or null if they are passed in directly
+   */
+  public GameCore(IntSupplier clock, Random rng, InputSource input) {
+    this.clock = clock;
+    this.rng = rng;
+    this.input = input;
+
+    // initializing one set of rules per intScreenNumber
+    rules = new ScreenRules[] {
+      new IntroRules(), // 0
+      new Setting1Rules(), // 1
+      new Game1Rules(), // 2
+      new Transfer1Rules(), // 3
+      new DeskSettingRules(5, 6, this::initializeGame2), // 4
+      new Game2Rules(), // 5
+      new DeskSettingRules(7, 8, this::initializeGame3), // 6
+      new Game3Rules(), // 7
+      new Transfer2Rules(), // 8
+      new EndingRules() // 9
+    };
+
+    masks = loadScreenMasks();
+    grids = screenGrids;
+    dictionary = loadDictionary();
+
+    // Randomizes which connection game answers are used
+    intConnectionsSet = rng.nextFloat() < 0.5 ? 0 : 1;
+    strIncorrectGroups = strIncorrectSets[intConnectionsSet];
+    strCorrectGroups = strCorrectSets[intConnectionsSet];
+    // Initializing filler values for highscore
+    strHighScores.add("00h:00m:20s");
+    strHighScores.add("00h:00m:50s");
+    strHighScores.add("00h:00m:50s");
+    strHighScores.add("00h:01m:20s");
+    strHighScores.add("00h:02m:15s");
+    intHighScoreDifficulty.add(0);
+    intHighScoreDifficulty.add(0);
+    intHighScoreDifficulty.add(1);
+    intHighScoreDifficulty.add(2);
+    intHighScoreDifficulty.add(2);
+
+    for (int i = 0; i < 5; i++){
+      intHighScoreDifficulty.add(-1);
+      isBestInCategory[i] = false;
+    }
+  }
+  /**
+   * Loads the collision mask of every screen and builds its grid the first time a game is created,
+   * along with the mask of every facing of the player sprite
+   *
+   * @return the mask of each screen, or null for screens without movement
+   */
+  static synchronized CollisionMask[] loadScreenMasks() {
+    if (screenMasks == null) {
+      AlphaMask[] sprites = new AlphaMask[strPlayerSpritePaths.length];
+      for (int i = 0; i < strPlayerSpritePaths.length; i++) {
+        try {
+          sprites[i] = AlphaMask.fromSprite(strPlayerSpritePaths[i], intPlayerWidth, intPlayerHeight);
+        }
+        catch (IOException e) {
+          throw new UncheckedIOException("Could not load player sprite " + strPlayerSpritePaths[i], e);
+        }
+      }
+      playerMasks = sprites;
+      CollisionMask[] loaded = new CollisionMask[strMaskPaths.length];
+      SpatialGrid[] built = new SpatialGrid[strMaskPaths.length];
+      for (int i = 0; i < strMaskPaths.length; i++) {
+        if (strMaskPaths[i] == null) {
+          continue;
+        }
+        try {
+          loaded[i] = CollisionMask.load(strMaskPaths[i]);
+        }
+        catch (IOException e) {
+          throw new UncheckedIOException("Could not load collision mask " + strMaskPaths[i], e);
+        }
+        built[i] = new SpatialGrid(loaded[i]);
+      }
+      screenGrids = built;
+      screenMasks = loaded;
+    }
+    return screenMasks;
+  }
+  /**
+   * Loads the Wordle dictionary the first time a game is created
+   *
+   * @return the dictionary of accepted guesses
+   */
+  static synchronized WordleDictionary loadDictionary() {
+    if (wordleDictionary == null) {
+      try {
+        wordleDictionary = WordleDictionary.load(strDictionaryPath);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException("Could not load Wordle dictionary " + strDictionaryPath, e);
+      }
+    }
+    return wordleDictionary;
+  }
+  /**
+   * Creates a game whose clock counts ticks instead of real time, so a run plays out the same however fast it is ticked
+   *
+   * @param rng Picks the Connections set and the Wordle answers
+   * @param input Feeds input events in at the start of each tick, or null if they are passed in directly
+   */
+  public GameCore(Random rng, InputSource input) {
+    this(null, rng, input);
+    clock = this::getTickMillis;
+  }
+  /**
+   * Runs one fixed tick: reads input, then the rules of the current screen, then the in-game clock
+   */
+  public void tick() {
+    if (input != null) {
+      input.poll(this);
+    }
+    intPrevPlayerX = intPlayerX;
+    intPrevPlayerY = intPlayerY;
+    rules[intScreenNumber].update();
+    updateTriggers();
+    // ELAPSED TIME CLOCK
+    if (intScreenNumber != 0 && intScreenNumber != 9){
+      updateElapsedTime();
+    }
+    lngTicks++;
+  }
+  /**
+   * Gives the game time of the ticks run so far
+   *
+   * @return milliseconds of game time that have been ticked
+   */
+  public int getTickMillis() {
+    return (int) (lngTicks * 1000 / intTickRate);
+  }
+  // -------------------------------------INPUT METHODS------------------------------
+  /**
+   * Applies one input event to the game; every way input reaches the game goes through here so it can be recorded
+   *
+   * @param intType Type of the event, one of the EVENT_ constants
+   * @param intA First value of the event
+   * @param intB Second value of the event
+   */
+  public void applyEvent(int intType, int intA, int intB) {
+    if (recorder != null) {
+      recorder.record(lngTicks, intType, intA, intB);
+    }
+    if (intType == EVENT_KEY_PRESSED) {
+      handleKeyPressed((char) intA, intB);
+    }
+    else if (intType == EVENT_KEY_RELEASED) {
+      handleKeyReleased(intA);
+    }
+    else if (intType == EVENT_MOUSE_PRESSED) {
+      handleMousePressed(intA, intB);
+      isClickCameraSet = false;
+    }
+    else if (intType == EVENT_CLICK_CAMERA) {
+      intClickCameraX = intA;
+      intClickCameraY = intB;
+      isClickCameraSet = true;
+    }
+    else if (intType == EVENT_START_ENABLED) {
+      isStartEnabled = intA != 0;
+    }
+  }
+  /**
+   * Presses a key
+   *
+   * @param chrKey The character typed, or 0xFFFF for keys without one
+   * @param intKeyCode The code of the key
+   */
+  public void keyPressed(char chrKey, int intKeyCode) {
+    applyEvent(EVENT_KEY_PRESSED, chrKey, intKeyCode);
+  }
+  /**
+   * Releases a key
+   *
+   * @param intKeyCode The code of the key
+   */
+  public void keyReleased(int intKeyCode) {
+    applyEvent(EVENT_KEY_RELEASED, intKeyCode, 0);
+  }
+  /**
+   * Clicks the mouse
+   *
+   * @param intX X-coordinate of the click
+   * @param intY Y-coordinate of the click
+   */
+  public void mousePressed(int intX, int intY) {
+    applyEvent(EVENT_MOUSE_PRESSED, intX, intY);
+  }
+  /**
+   * Handles a key being pressed
+   *
+   * @param chrKey The character typed, or 0xFFFF for keys without one
+   * @param intKeyCode The code of the key
+   */
+  public void handleKeyPressed(char chrKey, int intKeyCode) {
+    // Screen-specific key inputs
+    rules[intScreenNumber].onKey(chrKey);
+    // Player movement begins if key is held down
+    if (intKeyCode == UP) {
+      isUpPressed = true;
+    }
+    if (intKeyCode == DOWN) {
+      isDownPressed = true;
+    }
+    if (intKeyCode == LEFT) {
+      isLeftPressed = true;
+    }
+    if (intKeyCode == RIGHT) {
+      isRightPressed = true;
+    }
+    if (intKeyCode == SHIFT) {
+      isSprintPressed = true;
+    }
+  }
+  /**
+   * Handles a key being released
+   *
+   * @param intKeyCode The code of the key
+   */
+  public void handleKeyReleased(int intKeyCode) {
+    // Player movement stops if key is released
+    if (intKeyCode == UP) {
+      isUpPressed = false;
+    }
+    if (intKeyCode == DOWN) {
+      isDownPressed = false;
+    }
+    if (intKeyCode == LEFT) {
+      isLeftPressed = false;
+    }
+    if (intKeyCode == RIGHT) {
+      isRightPressed = false;
+    }
+    if (intKeyCode == SHIFT) {
+      isSprintPressed = false;
+    }
+  }
+  /**
+   * Handles a mouse click
+   *
+   * @param fltX X-coordinate of the click
+   * @param fltY Y-coordinate of the click
+   */
+  public void handleMousePressed(float fltX, float fltY) {
+    // Screen-specific buttons
+    rules[intScreenNumber].onMouse(fltX, fltY);
+  }
+  // ----------------SCREEN RULES------------------------
+  // This class is the base of the rules of every screen; tick(), handleKeyPressed() and handleMousePressed() look the current one up by intScreenNumber
+  abstract class ScreenRules {
+    /**
+     * Runs one fixed tick of the game logic of the screen
+     */
+    void update() {
+    }
+    /**
+     * Handles a key press on this screen
+     *
+     * @param chrKey The character typed
+     */
+    void onKey(char chrKey) {
+    }
+    /**
+     * Handles a mouse press on this screen
+     *
+     * @param fltX X-coordinate of the click
+     * @param fltY Y-coordinate of the click
+     */
+    void onMouse(float fltX, float fltY) {
+      handleMoveClick(fltX, fltY);
+      handleInfoButton(fltX, fltY);
+    }
+    /**
+     * Runs once when the player starts touching a trigger zone of this screen
+     *
+     * @param intZone The zone, one of the CollisionMask.ZONE_ constants
+     * @param intObject Which object of the zone is touched
+     */
+    void onEnter(int intZone, int intObject) {
+    }
+    /**
+     * Runs every tick while the player touches a trigger zone of this screen, after any onEnter()
+     *
+     * @param intZone The zone, one of the CollisionMask.ZONE_ constants
+     * @param intObject Which object of the zone is touched
+     */
+    void onStay(int intZone, int intObject) {
+    }
+    /**
+     * Runs once when the player stops touching a trigger zone, on the rules of the screen the zone is on
+     *
+     * @param intZone The zone, one of the CollisionMask.ZONE_ constants
+     * @param intObject Which object of the zone was touched
+     */
+    void onExit(int intZone, int intObject) {
+    }
+  }
+  // Rules of the start home screen
+  class IntroRules extends ScreenRules {
+    void onMouse(float fltX, float fltY) {
+      // brings player from intro screen to setting 1
+      if (startHitbox.contains(fltX, fltY) && !showPopup && isStartEnabled) {
+        intStartTime = clock.getAsInt();
+        intScreenNumber = 1; // Change to Setting1
+        resetSetting();
+      }
+      // Toggling between three different wordle difficulties (0 = easy, 1 = medium, 2 = hard)
+      if (difficultyHitbox.contains(fltX, fltY) && !showPopup){
+        if (intWordleDifficulty == 2){
+          intWordleDifficulty = 0;
+        }
+        else{
+          intWordleDifficulty++;
+        }
+      }
+
+      // Upon clicking, will show the highscores
+      if (highscoreHitbox.contains(fltX, fltY)) {
+        showPopup = true;
+      }
+      // Upon clicking back button of the pop-up, the highscores will stop displaying
+      else if (showPopup && backHitbox.contains(fltX, fltY)) {
+        showPopup = false;
+      }
+    }
+  }
+  // Rules of Game 1 (Broken Bridge)
+  class Game1Rules extends ScreenRules {
+    void update() {
+      // the player cannot move while falling off the building
+      if (getFallingZone() == CollisionMask.ZONE_NONE) {
+        updatePlayerMovement();
+      }
+      if (isScreenFaded){
+        resetSetting();
+      }
+    }
+    void onEnter(int intZone, int intObject) {
+      // Dissapearing planks are gone once stepped on
+      if (intZone == CollisionMask.ZONE_PLANK_1) {
+        isPlank1Show = false;
+      }
+      else if (intZone == CollisionMask.ZONE_PLANK_2) {
+        isPlank2Show = false;
+      }
+      else if (intZone == CollisionMask.ZONE_PLANK_3) {
+        isPlank3Show = false;
+      }
+      // Takes the player across the skybridge door
+      else if (intZone == CollisionMask.ZONE_EXIT) {
+        intScreenNumber = 3; // Transfer 1
+        resetSetting();
+      }
+    }
+    void onStay(int intZone, int intObject) {
+      // Falls off the building anywhere off the bridge or through a plank, once per tick however many the player is in
+      if (intZone == getFallingZone()) {
+        updateFallingFade();
+      }
+    }
+  }
+  // Rules of Game 2 (WORDLE)
+  class Game2Rules extends ScreenRules {
+    void update() {
+      // counts down the message shown after a guess that is not a word
+      if (intInvalidTicks > 0) {
+        intInvalidTicks--;
+      }
+      // Shows win or lose pop-up after game finishes
+      if (isGameOver && !isGameVictory) {
+        showLosePopup = true;
+      }
+      if (isGameOver && isGameVictory) {
+        showWinPopup = true;
+      }
+    }
+    void onKey(char chrKey) {
+      if (isGameOver){
+        return;
+      }
+      // Checks if input is a letter
+      if (chrKey >= 'a' && chrKey <= 'z' && (strGuesses[intCurrentRow] == null || strGuesses[intCurrentRow].length() < intGridSizeX) && !showPopup) {
+        // replaces null values with empty string
+        if (strGuesses[intCurrentRow] == null) {
+          strGuesses[intCurrentRow] = "";
+        }
+        // changes all inputs to capital letters
+        strGuesses[intCurrentRow] += Character.toUpperCase(chrKey);
+      }
+      // Removes letters from the working row that has yet to be submitted to check for correctness
+      else if (chrKey == BACKSPACE && strGuesses[intCurrentRow] != null && strGuesses[intCurrentRow].length() > 0) {
+        strGuesses[intCurrentRow] = strGuesses[intCurrentRow].substring(0, strGuesses[intCurrentRow].length() - 1);
+      }
+      // Checks the working row for correctness
+      else if (chrKey == ENTER && strGuesses[intCurrentRow] != null && strGuesses[intCurrentRow].length() == intGridSizeX) {
+        // a guess that is not a word shakes the row and leaves it to be fixed instead of using it up
+        if (!isValidGuess(strGuesses[intCurrentRow])) {
+          intInvalidTicks = intInvalidShowTicks;
+          return;
+        }
+        checkWordleGuess();
+        // moves onto next row
+        intCurrentRow++;
+      }
+    }
+    void onMouse(float fltX, float fltY) {
+      // Upon game 2 win, the user is directed back to the setting 2 screen
+      if (backHitbox.contains(fltX, fltY) && showWinPopup) {
+        intScreenNumber = 4; // Change to Setting 2
+        showWinPopup = false;
+      }
+      // Upon game 2 loss, the user is directed to play the game again!
+      else if (backHitbox.contains(fltX, fltY) && showLosePopup) {
+        initializeGame2();
+        showLosePopup = false;
+      }
+      handleInfoButton(fltX, fltY);
+    }
+  }
+  // Rules of Game 3 (Connections)
+  class Game3Rules extends ScreenRules {
+    void update() {
+      // Check if game is won
+      if (checkIfGameWon()) {
+        isGameVictory = true;
+        isGameOver = true;
+      }
+      if (isGameOver && !isGameVictory) {
+        showLosePopup = true;
+      }
+      if (isGameOver && isGameVictory) {
+        showWinPopup = true;
+      }
+    }
+    void onKey(char chrKey) {
+      // Key press check for correctness for connections (Game 3)
+      if (chrKey == ENTER) {
+        checkSelectedWords();
+      }
+    }
+    void onMouse(float fltX, float fltY) {
+      // Selects and deselects boxes
+      int intWordColumn = 0;
+      for (int rectColumn = 40; rectColumn < 600; rectColumn += 140) {
+        int intWordRow = 0;
+        for (int rectRow = 40; rectRow < 600; rectRow += 140) {
+          if (fltX > rectRow && fltX < rectRow + 100 && fltY > rectColumn && fltY < rectColumn + 100) {
+            String word = strIncorrectGroups[intWordColumn][intWordRow];
+            if (solvedGroups[intWordColumn][intWordRow]) {
+              // Do nothing if the group is solved
+            } else if (selectedBoxes[intWordColumn][intWordRow]) {
+              // Deselect the box
+              selectedBoxes[intWordColumn][intWordRow] = false;
+              selectedWords.remove(word);
+            } else {
+              // Select the box if less than 4 are selected
+              if (selectedWords.size() < 4) {
+                selectedBoxes[intWordColumn][intWordRow] = true;
+                selectedWords.add(word);
+              }
+            }
+            return;
+          }
+          intWordRow++;
+        }
+        intWordColumn++;
+      }
+      // Upon game 3 win, the user is directed back to the setting 3 screen
+      if (backHitbox.contains(fltX, fltY) && showWinPopup) {
+        intScreenNumber = 6; // Change to Setting 3
+        showWinPopup = false;
+      }
+      // Upon game 3 loss, the user is directed to play the game again!
+      else if (backHitbox.contains(fltX, fltY) && showLosePopup) {
+        initializeGame3();
+        showLosePopup = false;
+      }
+      handleInfoButton(fltX, fltY);
+    }
+  }
+  // Rules of setting 1 (BOSS office)
+  class Setting1Rules extends ScreenRules {
+    void update() {
+      // player movement is called here
+      updatePlayerMovement();
+      if (isScreenFaded){
+        resetSetting();
+        intScreenNumber = 2; // GAME 1
+      }
+    }
+    void onEnter(int intZone, int intObject) {
+      // Opens the skybridge door when the player reaches it
+      if (intZone == CollisionMask.ZONE_ELEVATOR) {
+        isElevatorOpen = true;
+      }
+    }
+    void onStay(int intZone, int intObject) {
+      // Plays scene change animation while the player is in the skybridge door
+      if (intZone == CollisionMask.ZONE_ELEVATOR) {
+        updateElevatorFade();
+      }
+    }
+  }
+  // Rules of settings 2 and 3 (Floor 2 and floor 1 offices), where the desk leads to a puzzle that unlocks the elevator
+  class DeskSettingRules extends ScreenRules {
+    // Initializing class specific variables
+    int intGameScreen, intNextScreen;
+    Runnable startGame;
+    /**
+     * Computes input screens and game start and localizes in terms of the class
+     *
+     * @param intGameScreen Screen of the puzzle on the desk
+     * @param intNextScreen Screen the elevator leads to
+     * @param startGame Initializes the puzzle on the desk
+     */
+    DeskSettingRules(int intGameScreen, int intNextScreen, Runnable startGame) {
+      this.intGameScreen = intGameScreen;
+      this.intNextScreen = intNextScreen;
+      this.startGame = startGame;
+    }
+    void update() {
+      // player movement is called here
+      updatePlayerMovement();
+      // Open elevator after player wins game, fade in the exclamation mark before player wins game
+      if (isGameVictory){
+        isElevatorOpen = true;
+      }
+      else {
+        updateExclamMark();
+      }
+      if (isScreenFaded){
+        intScreenNumber = intNextScreen;
+        resetSetting();
+      }
+    }
+    void onEnter(int intZone, int intObject) {
+      // Takes player to game on collision with desk
+      if (intZone == CollisionMask.ZONE_DESK && !isGameVictory){
+        isSwitchButtonDisplayed = true;
+      }
+    }
+    void onStay(int intZone, int intObject) {
+      // Scene animation to next scene while in the open elevator
+      if (intZone == CollisionMask.ZONE_ELEVATOR && isGameVictory){
+        updateElevatorFade();
+      }
+    }
+    void onMouse(float fltX, float fltY) {
+      handleMoveClick(fltX, fltY);
+      // Takes user from the setting to the puzzle on the desk
+      if (isSwitchButtonDisplayed && gameHitbox.contains(fltX, fltY)) {
+        startGame.run();
+        intScreenNumber = intGameScreen;
+        isSwitchButtonDisplayed = false;
+      }
+      handleInfoButton(fltX, fltY);
+    }
+  }
+  // Rules of transfer 1 (top floor office)
+  class Transfer1Rules extends ScreenRules {
+    void update() {
+      // Opens elevator as there is no game
+      isElevatorOpen = true;
+      // player movement is called here
+      updatePlayerMovement();
+      if (isScreenFaded){
+        intScreenNumber = 4;
+        resetSetting();
+      }
+    }
+    void onStay(int intZone, int intObject) {
+      // Scene animation to next scene while in the open elevator
+      if (intZone == CollisionMask.ZONE_ELEVATOR){
+        updateElevatorFade();
+      }
+    }
+  }
+  // Rules of transfer 2 (ground floor office)
+  class Transfer2Rules extends ScreenRules {
+    void update() {
+      // player movement is called here, until the player is in the elevator
+      if (!isInTrigger(CollisionMask.ZONE_EXIT)) {
+        updatePlayerMovement();
+      }
+      // Changes scene when animation is finished playing
+      if (isScreenFaded){
+        intScreenNumber = 9;
+        resetSetting();
+      }
+    }
+    void onEnter(int intZone, int intObject) {
+      // Opens the elevator when the player reaches it; player will also disappear
+      if (intZone == CollisionMask.ZONE_EXIT) {
+        isElevatorOpen = true;
+      }
+    }
+    void onStay(int intZone, int intObject) {
+      // Scene animation to next scene while in the elevator
+      if (intZone == CollisionMask.ZONE_EXIT) {
+        updateElevatorFade();
+      }
+    }
+  }
+  // Rules of the end screen of the game
+  class EndingRules extends ScreenRules {
+    void onMouse(float fltX, float fltY) {
+      // Ending screen play again button
+      if (playAgainHitbox.contains(fltX, fltY)){
+        // go back to the intro screen
+        intScreenNumber = 0;
+        addTime();
+        restartGame();
+      }
+    }
+  }
+  /**
+   * Resets player to initial position on the setting screen upon switching of setting screens
+   */
+  public void resetSetting(){
+    // Initializing starting player character position for specific scenes
+    if (intScreenNumber == 1 || intScreenNumber == 2 || intScreenNumber == 3){
+      intPlayerX = 380;
+      intPlayerY = 520;
+    }
+    if (intScreenNumber == 4 || intScreenNumber == 6 || intScreenNumber == 8){
+      intPlayerX = 400;
+      intPlayerY = 50;
+    }
+    // the player jumps straight to the starting position instead of sliding there
+    intPrevPlayerX = intPlayerX;
+    intPrevPlayerY = intPlayerY;
+    fltCarryX = 0;
+    fltCarryY = 0;
+    isPathing = false;
+    // initializing variables
+    intFacing = FACING_FORWARD;
+    fltExclamAlpha = 0;
+    fltElevatorAlpha = 0;
+    fltFallingAlpha = 0;
+    isSwitchButtonDisplayed = false;
+    isScreenFaded = false;
+    isGameVictory = false;
+    isGameOver = false;
+    isElevatorOpen = false;
+  }
+  /**
+   * Opens or closes the screen-specific information pop-up when its buttons are clicked
+   *
+   * @param fltX X-coordinate of the click
+   * @param fltY Y-coordinate of the click
+   */
+  public void handleInfoButton(float fltX, float fltY){
+    // Upon clicking, will show screen-specific guiding information
+    if (infoHitbox.contains(fltX, fltY)) {
+      showPopup = true;
+    }
+    // Upon clicking back button of the pop-up, the extra info pop-up will stop displaying
+    else if (showPopup && backHitbox.contains(fltX, fltY)) {
+      showPopup = false;
+    }
+  }
+  // <-----------------------PLANK PUZZLE METHODS ------------------------------->
+  /**
+   * Finds what the player is falling through, anywhere off the bridge or through a plank
+   *
+   * @return the first falling zone the player is in, or ZONE_NONE if the player is not falling
+   */
+  public int getFallingZone(){
+    for (int intZone : intTriggerZones) {
+      if ((intFallingZones & 1 << intZone) != 0 && isInTrigger(intZone)) {
+        return intZone;
+      }
+    }
+    return CollisionMask.ZONE_NONE;
+  }
+  // ----------------WORDLE METHODS------------------------
+  /**
+   * Checks if a guess is a real word; the target word always counts, even if the dictionary is missing it
+   *
+   * @param strGuess The five letters guessed
+   * @return true if the guess can be checked, false if it is not a word
+   */
+  public boolean isValidGuess(String strGuess) {
+    return strGuess.equals(strTargetWord) || dictionary.contains(strGuess);
+  }
+  /**
+   * Checks if the guesses for Game 2 (WORDLE) are correct answers
+   */
+  public void checkWordleGuess() {
+    // marks the letters once now, so drawing the row never has to look at the target word
+    intRowPatterns[intCurrentRow] = scoreGuess(strGuesses[intCurrentRow]);
+    // checks if working row letters match the target word
+    if (intRowPatterns[intCurrentRow] == intSolvedPattern) {
+      isGameOver = true;
+      isGameVictory = true;
+    }
+    // Checks if all rows have been used
+    else if (intCurrentRow == intGridSizeY - 1) {
+      isGameOver = true;
+      isGameVictory = false;
+    }
+  }
+  /**
+   * Marks each letter of a guess against the target word
+   * Correct letters are marked first, then each other letter is marked present only while the target has copies of it
+   * left over, so a repeated letter is never marked more times than the target has it
+   *
+   * @param strGuess The five letters guessed
+   * @return the marks as a base-3 number, the first letter in the lowest digit
+   */
+  public int scoreGuess(String strGuess) {
+    int[] intUnmatched = new int[26]; // copies of each letter in the target that no correct letter has used up
+    int intPattern = 0;
+    for (int j = 0, intDigit = 1; j < intGridSizeX; j++, intDigit *= 3) {
+      if (strGuess.charAt(j) == strTargetWord.charAt(j)) {
+        intPattern += MARK_CORRECT * intDigit;
+      }
+      else {
+        intUnmatched[strTargetWord.charAt(j) - 'A']++;
+      }
+    }
+    for (int j = 0, intDigit = 1; j < intGridSizeX; j++, intDigit *= 3) {
+      int intLetter = strGuess.charAt(j) - 'A';
+      if (strGuess.charAt(j) != strTargetWord.charAt(j) && intUnmatched[intLetter] > 0) {
+        intUnmatched[intLetter]--;
+        intPattern += MARK_PRESENT * intDigit;
+      }
+    }
+    return intPattern;
+  }
+  /**
+   * Works out the marks of every checked row again, after the guesses are restored from a snapshot
+   */
+  public void scoreWordleRows() {
+    intRowPatterns = new int[intGridSizeY];
+    for (int i = 0; strGuesses != null && strTargetWord != null && i < Math.min(intCurrentRow, strGuesses.length); i++) {
+      if (strGuesses[i] != null && strGuesses[i].length() == intGridSizeX) {
+        intRowPatterns[i] = scoreGuess(strGuesses[i]);
+      }
+    }
+  }
+  /**
+   * Splits every possible pattern into the mark of each letter
+   *
+   * @return the marks, indexed by pattern and then by letter
+   */
+  static int[][] buildPatternMarks() {
+    int[][] intMarks = new int[intSolvedPattern + 1][5];
+    for (int intPattern = 0; intPattern <= intSolvedPattern; intPattern++) {
+      for (int j = 0, intRest = intPattern; j < 5; j++, intRest /= 3) {
+        intMarks[intPattern][j] = intRest % 3;
+      }
+    }
+    return intMarks;
+  }
+  // ----------------CONNECTIONS METHODS------------------------
+  /**
+   * Checks if the selected words form a correct group. If not, it checks for one away and removes a life. If wrong then removes a life.
+   */
+  public void checkSelectedWords() {
+    // Checks that 4 words are selected
+    if (selectedWords.size() != 4) {
+      strMessage = "You must select exactly 4 words.";
+      return;
+    }
+
+    for (int i = 0; i < strCorrectGroups.length; i++) {
+      String[] correctGroup = Arrays.copyOfRange(strCorrectGroups[i], 0, 4);
+      if (selectedWords.containsAll(Arrays.asList(correctGroup))) {
+        // Mark the solved group
+        for (int j = 0; j < 4; j++) {
+          int index = findWordIndex(strCorrectGroups[i][j]);
+          if (index != -1) {
+            int row = index / 4;
+            int col = index % 4;
+            solvedGroups[row][col] = true;
+          }
+        }
+        strMessage = "You solved the group: " + strCorrectGroups[i][4];
+        selectedWords.clear();
+
+        return;
+      }
+    }
+    // If the correctGroup was not found, checks for one word away, and if not then just removes a life
+    boolean correctGroupFound = false;
+    if (!correctGroupFound) {
+      if (checkIfOneWordAway()) {
+        strMessage = "One word away...";
+        intLives--;
+        if (intLives <= 0) {
+          isGameOver = true;
+        }
+      }
+      else {
+        strMessage = "Selected words are incorrect.";
+        intLives--;
+        if (intLives <= 0) {
+          isGameOver = true;
+        }
+      }
+    }
+  }
+  /**
+   * Checks if the selected words are one word away from forming a correct group.
+   *
+   * @return true if three out of four words are correct and belong to the same category, false otherwise
+   */
+  public boolean checkIfOneWordAway() {
+    for (int i = 0; i < strCorrectGroups.length; i++) {
+      int matchCount = 0;
+      for (int j = 0; j < 4; j++) {
+        if (selectedWords.contains(strCorrectGroups[i][j])) {
+          matchCount++;
+        }
+      }
+      if (matchCount == 3) {
+        return true;
+      }
+    }
+    return false;
+  }
+  /**
+   * Finds the index of a given word in the incorrectGroups array.
+   *
+   * @param word is the string word to find
+   * @return the index of the word, or -1 if not found
+   */
+  public int findWordIndex(String word) {
+    for (int i = 0; i < strIncorrectGroups.length; i++) {
+      for (int j = 0; j < strIncorrectGroups[i].length; j++) {
+        if (strIncorrectGroups[i][j].equals(word)) {
+          return i * 4 + j;
+        }
+      }
+    }
+    return -1;
+  }
+  /**
+   * Checks if all groups are solved and will make the game end if it has
+   *
+   * @return true if the game is won, false otherwise
+   */
+  public boolean checkIfGameWon() {
+    for (int i = 0; i < solvedGroups.length; i++) {
+      for (int j = 0; j < solvedGroups[i].length; j++) {
+        if (!solvedGroups[i][j]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+  // -------------------------- GAME INITIALIZATION METHODS-------------------------------
+  /**
+   * Initializes Game 2 (WORDLE)
+   */
+  public void initializeGame2() {
+    // initializing variables
+    isGameOver = false;
+    isGameVictory = false;
+    strGuesses = new String[intGridSizeY];
+    intRowPatterns = new int[intGridSizeY];
+    intCurrentRow = 0;
+    intInvalidTicks = 0;
+    // Selects target answer randomly from string list
+    strTargetWord = strWordList[intWordleDifficulty][rng.nextInt(strWordList[0].length)]; // Randomly choose a target word
+    // resetting all pop-ups
+    showLosePopup = false;
+    showWinPopup = false;
+    showPopup = false;
+  }
+  /**
+   * Initializes Game 3 (CONNECTIONS)
+   */
+  public void initializeGame3() {
+    // initializing variables
+    isGameOver = false;
+    isGameVictory = false;
+    selectedWords.clear();
+    selectedBoxes = new boolean[4][4];
+    solvedGroups = new boolean[4][4];
+    strMessage = "";
+    intLives = 4;
+    // resetting all pop-ups
+    showLosePopup = false;
+    showWinPopup = false;
+    showPopup = false;
+  }
+
+  public void restartGame(){
+    initializeGame2();
+    initializeGame3();
+    resetSetting();
+    isPlank1Show = true;
+    isPlank2Show = true;
+    isPlank3Show = true;
+  }
+
+  // ------------------------------PLAYER MOVEMENT & COLLISION METHODS-----------------------------
+  /**
+   * Player movement based on the arrow keys being held
+   * Diagonal moves cover the same distance per tick as straight ones, and holding shift sprints
+   */
+  public void updatePlayerMovement(){
+    // the player cannot move while a button or pop-up is up, or once inside an open elevator
+    if (isSwitchButtonDisplayed || showPopup || (isCollidingElevator() && isElevatorOpen)) {
+      return;
+    }
+    int intDirectionX = (isRightPressed ? 1 : 0) - (isLeftPressed ? 1 : 0);
+    int intDirectionY = (isDownPressed ? 1 : 0) - (isUpPressed ? 1 : 0);
+    // the arrow keys take over from walking to a click
+    if (intDirectionX != 0 || intDirectionY != 0) {
+      isPathing = false;
+    }
+    else if (isPathing) {
+      followPath();
+      return;
+    }
+    float fltSpeed = isSprintPressed ? fltSprintSpeed : fltWalkSpeed;
+    if (intDirectionX != 0 && intDirectionY != 0) {
+      fltSpeed *= DIAGONAL;
+    }
+    // whole pixels are moved now and the leftover part of a pixel is carried to the next tick
+    fltCarryX = intDirectionX == 0 ? 0 : fltCarryX + intDirectionX * fltSpeed;
+    fltCarryY = intDirectionY == 0 ? 0 : fltCarryY + intDirectionY * fltSpeed;
+    int intDx = (int) fltCarryX;
+    int intDy = (int) fltCarryY;
+    fltCarryX -= intDx;
+    fltCarryY -= intDy;
+    if (intDx != 0 || intDy != 0) {
+      movePlayer(intDx, intDy);
+    }
+  }
+  /**
+   * Starts walking the player to a clicked spot on a floor, unless the click is on a button or a pop-up is up
+   *
+   * @param fltX X-coordinate of the click
+   * @param fltY Y-coordinate of the click
+   */
+  public void handleMoveClick(float fltX, float fltY){
+    if (!isClickToMove[intScreenNumber] || showPopup || isSwitchButtonDisplayed || infoHitbox.contains(fltX, fltY)) {
+      return;
+    }
+    if (pathFinders[intScreenNumber] == null) {
+      pathFinders[intScreenNumber] = new PathFinder(masks[intScreenNumber]);
+    }
+    PathFinder finder = pathFinders[intScreenNumber];
+    // the middle of the player's sprite ends up on the clicked spot, which is on the part of the floor the camera showed
+    // the drawn camera is smoothed between ticks, so it is only known here if the click came with it
+    float fltCameraX = isClickCameraSet ? intClickCameraX : getCameraX(intPlayerX);
+    float fltCameraY = isClickCameraSet ? intClickCameraY : getCameraY(intPlayerY);
+    intTargetX = Math.round(fltX + fltCameraX) - intPlayerWidth / 2;
+    intTargetY = Math.round(fltY + fltCameraY) - intPlayerHeight / 2;
+    intPath = finder.start(finder.cellAt(intPlayerX, intPlayerY), finder.cellAt(intTargetX, intTargetY));
+    intPathStep = 1; // the first cell is the one the player is in
+    isPathing = true;
+  }
+  /**
+   * Walks the player one tick along the path to the clicked spot, through the middle of each corner cell and then onto the spot itself
+   * If the spot is inside a wall or the desk, the player walks up to it until blocked, so walking into the desk still offers its puzzle
+   */
+  public void followPath(){
+    PathFinder finder = pathFinders[intScreenNumber];
+    if (intPath == null) {
+      intPath = finder.search(intSearchBudget);
+      if (intPath == null) {
+        return; // still looking for the way; carries on next tick
+      }
+    }
+    int intNextX = intPathStep < intPath.length ? finder.middleX(intPath[intPathStep]) : intTargetX;
+    int intNextY = intPathStep < intPath.length ? finder.middleY(intPath[intPathStep]) : intTargetY;
+    float fltDistanceX = intNextX - intPlayerX;
+    float fltDistanceY = intNextY - intPlayerY;
+    float fltDistance = (float) Math.sqrt(fltDistanceX * fltDistanceX + fltDistanceY * fltDistanceY);
+    float fltSpeed = isSprintPressed ? fltSprintSpeed : fltWalkSpeed;
+    int intDx, intDy;
+    if (fltDistance <= fltSpeed) {
+      // lands exactly on the point rather than going past it
+      intDx = (int) fltDistanceX;
+      intDy = (int) fltDistanceY;
+      fltCarryX = 0;
+      fltCarryY = 0;
+    }
+    else {
+      fltCarryX += fltDistanceX / fltDistance * fltSpeed;
+      fltCarryY += fltDistanceY / fltDistance * fltSpeed;
+      intDx = (int) fltCarryX;
+      intDy = (int) fltCarryY;
+      fltCarryX -= intDx;
+      fltCarryY -= intDy;
+    }
+    int intStartX = intPlayerX;
+    int intStartY = intPlayerY;
+    if (intDx != 0 || intDy != 0) {
+      movePlayer(intDx, intDy);
+    }
+    if (intPlayerX == intNextX && intPlayerY == intNextY) {
+      intPathStep++;
+      isPathing = intPathStep <= intPath.length;
+    }
+    // stops once up against the desk, or stuck against a wall
+    else if (isCollidingDesk || intPlayerX == intStartX && intPlayerY == intStartY) {
+      isPathing = false;
+    }
+  }
+  /**
+   * Moves the player along a move, stopping at the first wall or desk in the way and sliding along it with what is left of the move
+   * The player also stops on the first hazard or plank it crosses, so a fast move can never skip over one
+   * Once the player's box reaches an object whose on-screen pixels are painted, the rest of the move is stepped a pixel at a time
+   * so the object is only hit where the visible pixels of the sprite touch it
+   *
+   * @param intDx Distance to move along x
+   * @param intDy Distance to move along y
+   */
+  public void movePlayer(int intDx, int intDy){
+    SpatialGrid grid = grids[intScreenNumber];
+    CollisionMask mask = masks[intScreenNumber];
+    int intStartX = intPlayerX;
+    int intStartY = intPlayerY;
+    int intBlockedBy = CollisionMask.ZONE_NONE;
+    // the move itself, then what is left of it sliding along whatever it hit
+    for (int intPass = 0; intPass < 2 && (intDx != 0 || intDy != 0); intPass++) {
+      if (isInShapedZone(intPlayerX, intPlayerY)) {
+        intBlockedBy = stepPlayer(intDx, intDy);
+        break;
+      }
+      grid.sweep(intPlayerX, intPlayerY, intDx, intDy, intBlockingZones | intFallingZones, hit);
+      if (hit.collider == null) {
+        intPlayerX += intDx;
+        intPlayerY += intDy;
+        break;
+      }
+      // moves right up to the side that was hit; the other axis is rounded back towards the start so it never ends up inside anything
+      int intMovedX, intMovedY;
+      if (hit.isAlongX) {
+        intMovedX = (intDx > 0 ? hit.collider.intX - 1 : hit.collider.intX + hit.collider.intW) - intPlayerX;
+        intMovedY = (int) (intDy * hit.fltTime);
+      }
+      else {
+        intMovedX = (int) (intDx * hit.fltTime);
+        intMovedY = (intDy > 0 ? hit.collider.intY - 1 : hit.collider.intY + hit.collider.intH) - intPlayerY;
+      }
+      intPlayerX += intMovedX;
+      intPlayerY += intMovedY;
+      if (mask.shapes[hit.collider.intZone] != null) {
+        intBlockedBy = stepPlayer(intDx - intMovedX, intDy - intMovedY);
+        break;
+      }
+      if ((intFallingZones >> hit.collider.intZone & 1) != 0) {
+        // steps onto the hazard so the fall starts there
+        if (hit.isAlongX) {
+          intPlayerX += Integer.signum(intDx);
+        }
+        else {
+          intPlayerY += Integer.signum(intDy);
+        }
+        break;
+      }
+      intBlockedBy = hit.collider.intZone;
+      // slides: the axis that was hit stops and the other axis carries on
+      if (hit.isAlongX) {
+        intDx = 0;
+        intDy -= intMovedY;
+        fltCarryX = 0;
+      }
+      else {
+        intDy = 0;
+        intDx -= intMovedX;
+        fltCarryY = 0;
+      }
+    }
+    // walking into the desk offers its puzzle, walking anywhere else takes the offer away, and walls change nothing
+    if (intBlockedBy == CollisionMask.ZONE_DESK) {
+      isCollidingDesk = true;
+    }
+    else if (intBlockedBy == CollisionMask.ZONE_NONE) {
+      isCollidingDesk = false;
+    }
+    // faces the way the player moved, sideways if the move was diagonal
+    if (intPlayerX != intStartX) {
+      intFacing = intPlayerX > intStartX ? FACING_RIGHT : FACING_LEFT;
+    }
+    else if (intPlayerY != intStartY) {
+      intFacing = intPlayerY > intStartY ? FACING_FORWARD : FACING_BACKWARD;
+    }
+  }
+  /**
+   * Moves the player a pixel at a time, checking the visible pixels of the sprite at every step
+   * A blocked diagonal step slides along whichever axis is free; the player stops on the first hazard or plank it touches
+   *
+   * @param intDx Distance to move along x
+   * @param intDy Distance to move along y
+   * @return the zone that stopped the player, CollisionMask.ZONE_WALL or ZONE_DESK, or ZONE_NONE if nothing did
+   */
+  public int stepPlayer(int intDx, int intDy){
+    int intFromX = intPlayerX;
+    int intFromY = intPlayerY;
+    int intSteps = Math.max(Math.abs(intDx), Math.abs(intDy));
+    // a player already overlapping the desk, say after turning round beside it, may always walk away from it
+    boolean isDeskIgnored = isTouching(CollisionMask.ZONE_DESK, intPlayerX, intPlayerY);
+    for (int i = 1; i <= intSteps; i++) {
+      int intNextX = intFromX + Math.round((float) intDx * i / intSteps);
+      int intNextY = intFromY + Math.round((float) intDy * i / intSteps);
+      int intBlockedBy = blockerAt(intNextX, intNextY, isDeskIgnored);
+      if (intBlockedBy != CollisionMask.ZONE_NONE && intNextX != intPlayerX && intNextY != intPlayerY) {
+        if (blockerAt(intNextX, intPlayerY, isDeskIgnored) == CollisionMask.ZONE_NONE) {
+          intNextY = intPlayerY;
+          intBlockedBy = CollisionMask.ZONE_NONE;
+        }
+        else if (blockerAt(intPlayerX, intNextY, isDeskIgnored) == CollisionMask.ZONE_NONE) {
+          intNextX = intPlayerX;
+          intBlockedBy = CollisionMask.ZONE_NONE;
+        }
+      }
+      if (intBlockedBy != CollisionMask.ZONE_NONE) {
+        return intBlockedBy;
+      }
+      intPlayerX = intNextX;
+      intPlayerY = intNextY;
+      for (int intZone = CollisionMask.ZONE_HAZARD; intZone <= CollisionMask.ZONE_PLANK_3; intZone++) {
+        if (isTouching(intZone, intPlayerX, intPlayerY)) {
+          return CollisionMask.ZONE_NONE;
+        }
+      }
+    }
+    return CollisionMask.ZONE_NONE;
+  }
+  /**
+   * Finds what would stop the player standing at a position
+   *
+   * @param intX X-coordinate of the player
+   * @param intY Y-coordinate of the player
+   * @param isDeskIgnored Whether the desk is let through
+   * @return CollisionMask.ZONE_WALL or ZONE_DESK if the player cannot stand there, ZONE_NONE if it can
+   */
+  int blockerAt(int intX, int intY, boolean isDeskIgnored){
+    if (masks[intScreenNumber].isIn(CollisionMask.ZONE_WALL, intX, intY)) {
+      return CollisionMask.ZONE_WALL;
+    }
+    if (!isDeskIgnored && isTouching(CollisionMask.ZONE_DESK, intX, intY)) {
+      return CollisionMask.ZONE_DESK;
+    }
+    return CollisionMask.ZONE_NONE;
+  }
+  /**
+   * Checks if the player's box is inside any zone whose on-screen pixels are painted, where moves have to be stepped a pixel at a time
+   *
+   * @param intX X-coordinate of the player
+   * @param intY Y-coordinate of the player
+   * @return true if the player is in such a zone, false otherwise
+   */
+  boolean isInShapedZone(int intX, int intY){
+    AlphaMask[] shapes = masks[intScreenNumber].shapes;
+    for (int intZone = 0; intZone < shapes.length; intZone++) {
+      if (shapes[intZone] != null && grids[intScreenNumber].find(intZone, intX, intY) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+  /**
+   * Checks if the player standing at a position touches a zone
+   * The zone's rectangles say whether the player's box touches it; where the zone's on-screen pixels are painted,
+   * a visible pixel of the sprite also has to be on one of them, so the transparent corners of the sprite never count
+   *
+   * @param intZone The zone, one of the CollisionMask.ZONE_ constants
+   * @param intX X-coordinate of the player
+   * @param intY Y-coordinate of the player
+   * @return true if the player touches the zone, false otherwise
+   */
+  public boolean isTouching(int intZone, int intX, int intY){
+    return findTouching(intZone, intX, intY) != null;
+  }
+  /**
+   * Finds the object of a zone the player touches, the same way as isTouching()
+   *
+   * @param intZone The zone, one of the CollisionMask.ZONE_ constants
+   * @param intX X-coordinate of the player
+   * @param intY Y-coordinate of the player
+   * @return a rectangle of the touched object, or null if the player touches none
+   */
+  public SpatialGrid.Collider findTouching(int intZone, int intX, int intY){
+    SpatialGrid.Collider collider = grids[intScreenNumber].find(intZone, intX, intY);
+    if (collider == null) {
+      return null;
+    }
+    AlphaMask shape = masks[intScreenNumber].shapes[intZone];
+    return shape == null || shape.overlaps(playerMasks[intFacing], intX, intY) ? collider : null;
+  }
+  /**
+   * Checks if the player is in a trigger zone as of the last tick
+   *
+   * @param intZone The zone, one of intTriggerZones
+   * @return true if the player is in the zone, false otherwise
+   */
+  public boolean isInTrigger(int intZone){
+    return intTriggerObjects[intZone] != CollisionMask.ZONE_NONE;
+  }
+  /**
+   * Checks if the player is colliding with the elevator in the image
+   *
+   * @return true if colliding, false if not colliding
+   */
+  public boolean isCollidingElevator(){
+    return isInTrigger(CollisionMask.ZONE_ELEVATOR);
+  }
+  // ------------------------------CAMERA METHODS----------------------------------
+  /**
+   * Gives the left edge of the part of the floor shown on screen, keeping the player in the middle until an edge of the floor is reached
+   * A floor is as big as its collision mask, so floors the size of the screen never scroll
+   *
+   * @param fltPlayerX X-coordinate the player is drawn at
+   * @return x-coordinate of the floor at the left edge of the screen
+   */
+  public float getCameraX(float fltPlayerX){
+    CollisionMask mask = masks[intScreenNumber];
+    if (mask == null) {
+      return 0;
+    }
+    int intFloorWidth = mask.intColumns * CollisionMask.intCellSize;
+    return Math.max(0, Math.min(intFloorWidth - width, fltPlayerX + intPlayerWidth / 2f - width / 2f));
+  }
+  /**
+   * Gives the top edge of the part of the floor shown on screen, the same way as getCameraX()
+   *
+   * @param fltPlayerY Y-coordinate the player is drawn at
+   * @return y-coordinate of the floor at the top edge of the screen
+   */
+  public float getCameraY(float fltPlayerY){
+    CollisionMask mask = masks[intScreenNumber];
+    if (mask == null) {
+      return 0;
+    }
+    int intFloorHeight = mask.intRows * CollisionMask.intCellSize;
+    return Math.max(0, Math.min(intFloorHeight - height, fltPlayerY + intPlayerHeight / 2f - height / 2f));
+  }
+  // ------------------------------TRIGGER ZONE METHODS----------------------------------
+  /**
+   * Makes an empty list of the objects the player is in, one per zone
+   *
+   * @return ZONE_NONE for every zone
+   */
+  static int[] newTriggerObjects(){
+    int[] intObjects = new int[CollisionMask.intZoneColours.length];
+    Arrays.fill(intObjects, CollisionMask.ZONE_NONE);
+    return intObjects;
+  }
+  /**
+   * Works out which trigger zones the player is in and tells the screen rules about the ones entered and left,
+   * then about every zone the player is still in
+   * The zones are only looked up again when the player has moved, turned or changed screen, so a player standing still costs nothing
+   */
+  public void updateTriggers(){
+    if (intScreenNumber != intTriggerScreen || intPlayerX != intTriggerX || intPlayerY != intTriggerY
+        || intFacing != intTriggerFacing || isCollidingDesk != isTriggerDesk) {
+      findTriggers(intNextObjects);
+      int intOldScreen = intTriggerScreen;
+      intTriggerScreen = intScreenNumber;
+      intTriggerX = intPlayerX;
+      intTriggerY = intPlayerY;
+      intTriggerFacing = intFacing;
+      isTriggerDesk = isCollidingDesk;
+      // zones left are passed to the screen they were on, which is not the current one after a screen change
+      for (int intZone : intTriggerZones) {
+        int intOld = intTriggerObjects[intZone];
+        if (intOld != CollisionMask.ZONE_NONE && intOld != intNextObjects[intZone]) {
+          intTriggerObjects[intZone] = CollisionMask.ZONE_NONE;
+          rules[intOldScreen].onExit(intZone, intOld);
+        }
+      }
+      for (int intZone : intTriggerZones) {
+        int intNew = intNextObjects[intZone];
+        if (intNew != CollisionMask.ZONE_NONE && intNew != intTriggerObjects[intZone]) {
+          intTriggerObjects[intZone] = intNew;
+          rules[intScreenNumber].onEnter(intZone, intNew);
+          // an event that leaves the screen ends this screen's events
+          if (intScreenNumber != intTriggerScreen) {
+            return;
+          }
+        }
+      }
+    }
+    for (int intZone : intTriggerZones) {
+      if (intTriggerObjects[intZone] != CollisionMask.ZONE_NONE) {
+        rules[intScreenNumber].onStay(intZone, intTriggerObjects[intZone]);
+        if (intScreenNumber != intTriggerScreen) {
+          return;
+        }
+      }
+    }
+  }
+  /**
+   * Finds the object of each trigger zone the player is in
+   * The desk is solid, so it counts as entered when the last move was blocked by it
+   *
+   * @param intObjects Filled with the object of each zone, or ZONE_NONE
+   */
+  void findTriggers(int[] intObjects){
+    Arrays.fill(intObjects, CollisionMask.ZONE_NONE);
+    if (masks[intScreenNumber] == null) {
+      return;
+    }
+    for (int intZone : intTriggerZones) {
+      if (intZone == CollisionMask.ZONE_DESK) {
+        intObjects[intZone] = isCollidingDesk ? 0 : CollisionMask.ZONE_NONE;
+        continue;
+      }
+      SpatialGrid.Collider collider = findTouching(intZone, intPlayerX, intPlayerY);
+      if (collider != null) {
+        intObjects[intZone] = collider.intObject;
+      }
+    }
+  }
+
+  // ------------------------------FADING OBJECT METHODS----------------------------------
+  /**
+   * The exclamation mark slowly fades into view from an initial transparent state
+   */
+  public void updateExclamMark(){
+    // Slowly increases the opacity of the exclamation mark image, stopping at fully opaque
+    if (fltExclamAlpha < 255.0) {
+      fltExclamAlpha = Math.min(fltExclamAlpha + fltFadeSpeed, 255);
+    }
+  }
+  /**
+   * Upon player contact with an open elevator,
+   * the whole screen will slowly fade to dark
+   * to transition to the next scene
+   */
+  public void updateElevatorFade(){
+    // Increases opacity of the black screen over time until it is completely opaque
+    if (fltElevatorAlpha < 255.0) {
+      fltElevatorAlpha += fltScreenFadeSpeed;
+    }
+    else{
+      isScreenFaded = true;
+    }
+  }
+
+  /**
+   * When player falls off map in broken bridge
+   * Whole screen will fade to dark and bring the user back to the restart point
+   */
+  public void updateFallingFade(){
+    // Increases opacity of the black screen over time until it is completely opaque
+    if (fltFallingAlpha < 255.0) {
+      fltFallingAlpha += fltScreenFadeSpeed;
+    }
+    else{
+      isScreenFaded = true;
+    }
+  }
+  // -------------------------------IN GAME STOPWATCH--------------------------------------
+  /**
+   * Works out the time that has passed since the start of the game
+   * The clock text is only rebuilt when the second changes, so ticking stays free of allocation
+   */
+  public void updateElapsedTime() {
+    // Compares the current time passed in the game with the time of the game's start
+    intElapsedTime = clock.getAsInt() - intStartTime;
+    if (intElapsedTime / 1000 == intShownSecond){
+      return;
+    }
+    intShownSecond = intElapsedTime / 1000;
+
+    // Calculates seconds, minutes and hours
+    int intSeconds = (intElapsedTime / 1000) % 60;
+    int intMinutes = (intElapsedTime / (1000 * 60)) % 60;
+    int intHours = (intElapsedTime / (1000 * 60 * 60)) % 24;
+
+    // formats the time in digital clock display
+    strTime = String.format("%02dh:%02dm:%02ds", intHours, intMinutes, intSeconds);
+  }
+  /**
+   * Adds the time that the player took to finish the game to the highscore list; will not show if it is not better than pre-existing scores
+   */
+  public void addTime(){
+    // Initializing variables
+    int intNewTime = parseTimeToSeconds(strTime);
+    int intNewPos = -1;
+
+    // Check every value in the list to see if the new time is smaller than the rest
+    for(int i = 0; i < 5; i++){
+      if (intNewTime < parseTimeToSeconds(strHighScores.get(i))){
+        // Adds to the ranking of where the new time will be on the leaderboard
+        intNewPos++;
+      }
+    }
+    // inputs the new time into the highscore list if the new time is smaller than the ones already existing
+    if(intNewPos > -1){
+      intNewPos = 4 - intNewPos;
+      strHighScores.add(intNewPos, strTime);
+      strHighScores.remove(5);
+      intHighScoreDifficulty.add(intNewPos, intWordleDifficulty);
+      intHighScoreDifficulty.remove(5);
+      intHighScoreVersion++;
+    }
+  }
+  /**
+   * Takes the string of time in the format 00h:00m:00s to an integer amount of seconds
+   */
+  public int parseTimeToSeconds(String strTimer){
+    // Initialization
+    String[] strCurrentTime = strTimer.split(":");
+
+    // Removing the "h", "m", or "s"
+    for (int i = 0; i < strCurrentTime.length; i++){
+      strCurrentTime[i] = strCurrentTime[i].substring(0, 2);
+    }
+
+    // Parse the split strings into integers
+    int intcurrentHours = Integer.parseInt(strCurrentTime[0]);
+    int intcurrentMinutes = Integer.parseInt(strCurrentTime[1]);
+    int intcurrentSeconds = Integer.parseInt(strCurrentTime[2]);
+
+    // Return total number of seconds
+    return intcurrentHours * 3600 + intcurrentMinutes * 60 + intcurrentSeconds;
+  }
+
+  /**
+   * Check which values of the high score list are the best in the respective difficulty and changes boolean to be displayed
+   */
+  public void checkIfBestInCategory(){
+    // Initialization
+    ArrayList<Integer> intIndexEasy = new ArrayList<>();
+    ArrayList<Integer> intIndexMed = new ArrayList<>();
+    ArrayList<Integer> intIndexHard = new ArrayList<>();
+    int intLowestEasy = 999999999;
+    int intLowestMed = 999999999;
+    int intLowestHard = 999999999;
+    int intBestEasy = -1;
+    int intBestMed = -1;
+    int intBestHard = -1;
+    // Sorting the times by difficulty
+    for(int i = 0; i < 5; i++){
+      if (intHighScoreDifficulty.get(i) == 0){
+        intIndexEasy.add(i);
+      }
+      else if (intHighScoreDifficulty.get(i) == 1){
+        intIndexMed.add(i);
+      }
+      else if (intHighScoreDifficulty.get(i) == 2){
+        intIndexHard.add(i);
+      }
+    }
+    // Finding the smallest time in the easy difficulty
+    for (int i = 0; i < intIndexEasy.size(); i++){
+      if(intLowestEasy > parseTimeToSeconds(strHighScores.get(intIndexEasy.get(i)))){
+        intLowestEasy = parseTimeToSeconds(strHighScores.get(intIndexEasy.get(i)));
+        intBestEasy = intIndexEasy.get(i);
+      }
+    }
+    // Finding the smallest time in the medium difficulty
+    for (int i = 0; i < intIndexMed.size(); i++){
+      if(intLowestMed > parseTimeToSeconds(strHighScores.get(intIndexMed.get(i)))){
+        intLowestMed = parseTimeToSeconds(strHighScores.get(intIndexMed.get(i)));
+        intBestMed = intIndexMed.get(i);
+      }
+    }
+    // Finding the smallest time in the hard difficulty
+    for (int i = 0; i < intIndexHard.size(); i++){
+      if(intLowestHard > parseTimeToSeconds(strHighScores.get(intIndexHard.get(i)))){
+        intLowestHard = parseTimeToSeconds(strHighScores.get(intIndexHard.get(i)));
+        intBestHard = intIndexHard.get(i);
+      }
+    }
+    // resetting the old data
+    for (int i = 0; i < 5; i++){
+      isBestInCategory[i] = false;
+    }
+    // assigning true to the shortest values of each respective difficulty
+    if (intBestEasy != -1){
+      isBestInCategory[intBestEasy] = true;
+    }
+    if (intBestMed != -1){
+      isBestInCategory[intBestMed] = true;
+    }
+    if (intBestHard != -1){
+      isBestInCategory[intBestHard] = true;
+    }
+  }
+}
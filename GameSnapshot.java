@@ -0,0 +1,273 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+* The program GameSnapshot.java saves and restores the full state of a game so a run can be resumed after the app is closed
+*
+* Snapshot layout (big-endian): magic, version, tick, screen, packed flags, then the bridge, Wordle, Connections,
+* player, fade, clock and highscore state in that order; a run in progress takes a few hundred bytes
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class GameSnapshot {
+
+  // SNAPSHOT FORMAT CONSTANTS
+  static final int MAGIC = 0x4E595453; // "NYTS"
+  static final int VERSION = 1;
+
+  /**
+   * Writes the state of a game into a snapshot; called on the thread that ticks the game so the state is never half-updated
+   *
+   * @param game The game to save
+   * @return the bytes of the snapshot
+   */
+  public static byte[] capture(GameCore game) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(game.lngTicks);
+      out.writeByte(game.intScreenNumber);
+      boolean[] isFlags = {
+        game.showPopup, game.showWinPopup, game.showLosePopup, game.isSwitchButtonDisplayed, game.isScreenFaded,
+        game.isPlank1Show, game.isPlank2Show, game.isPlank3Show, game.isGameOver, game.isGameVictory,
+        game.isElevatorOpen, game.isCollidingDesk
+      };
+      int intFlags = 0;
+      for (int i = 0; i < isFlags.length; i++) {
+        if (isFlags[i]) {
+          intFlags |= 1 << i;
+        }
+      }
+      out.writeShort(intFlags);
+
+      // BRIDGE
+      out.writeFloat(game.fltFallingAlpha);
+
+      // WORDLE
+      out.writeByte(game.intWordleDifficulty);
+      writeNullable(out, game.strTargetWord);
+      out.writeByte(game.intCurrentRow);
+      out.writeByte(game.strGuesses == null ? -1 : game.strGuesses.length);
+      for (int i = 0; game.strGuesses != null && i < game.strGuesses.length; i++) {
+        writeNullable(out, game.strGuesses[i]);
+      }
+
+      // CONNECTIONS
+      out.writeByte(game.intConnectionsSet);
+      out.writeShort(packGrid(game.selectedBoxes));
+      out.writeShort(packGrid(game.solvedGroups));
+      out.writeUTF(game.strMessage);
+      out.writeByte(game.intLives);
+
+      // PLAYER AND FADES
+      out.writeShort(game.intPlayerX);
+      out.writeShort(game.intPlayerY);
+      out.writeByte(game.intFacing);
+      out.writeFloat(game.fltExclamAlpha);
+      out.writeFloat(game.fltElevatorAlpha);
+
+      // CLOCK
+      out.writeInt(game.intElapsedTime);
+
+      // HIGHSCORES
+      out.writeByte(game.strHighScores.size());
+      for (String strScore : game.strHighScores) {
+        out.writeUTF(strScore);
+      }
+      out.writeByte(game.intHighScoreDifficulty.size());
+      for (int intDifficulty : game.intHighScoreDifficulty) {
+        out.writeByte(intDifficulty);
+      }
+    }
+    catch (IOException e) {
+      // a ByteArrayOutputStream never throws
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+  /**
+   * Puts a freshly created game into the state saved in a snapshot
+   * The in-game clock carries on from the time it showed when the snapshot was taken, however long the app was closed for
+   *
+   * @param game A game that has not been ticked yet
+   * @param bytSnapshot The bytes of the snapshot
+   */
+  public static void restore(GameCore game, byte[] bytSnapshot) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytSnapshot));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("not a game snapshot");
+    }
+    int intVersion = in.readInt();
+    if (intVersion != VERSION) {
+      throw new IOException("unsupported snapshot version " + intVersion);
+    }
+    game.lngTicks = in.readLong();
+    int intScreen = in.readByte();
+    if (intScreen < 0 || intScreen >= game.rules.length) {
+      throw new IOException("snapshot has no screen " + intScreen);
+    }
+    game.intScreenNumber = intScreen;
+    int intFlags = in.readShort();
+    game.showPopup = (intFlags & 1) != 0;
+    game.showWinPopup = (intFlags & 1 << 1) != 0;
+    game.showLosePopup = (intFlags & 1 << 2) != 0;
+    game.isSwitchButtonDisplayed = (intFlags & 1 << 3) != 0;
+    game.isScreenFaded = (intFlags & 1 << 4) != 0;
+    game.isPlank1Show = (intFlags & 1 << 5) != 0;
+    game.isPlank2Show = (intFlags & 1 << 6) != 0;
+    game.isPlank3Show = (intFlags & 1 << 7) != 0;
+    game.isGameOver = (intFlags & 1 << 8) != 0;
+    game.isGameVictory = (intFlags & 1 << 9) != 0;
+    game.isElevatorOpen = (intFlags & 1 << 10) != 0;
+    game.isCollidingDesk = (intFlags & 1 << 11) != 0;
+
+    // BRIDGE
+    game.fltFallingAlpha = in.readFloat();
+
+    // WORDLE
+    game.intWordleDifficulty = in.readByte();
+    game.strTargetWord = readNullable(in);
+    game.intCurrentRow = in.readByte();
+    int intRows = in.readByte();
+    game.strGuesses = intRows < 0 ? null : new String[intRows];
+    for (int i = 0; i < intRows; i++) {
+      game.strGuesses[i] = readNullable(in);
+    }
+    // the tile colours are not saved; they are worked out again from the guesses
+    game.scoreWordleRows();
+
+    // CONNECTIONS
+    int intSet = in.readByte();
+    if (intSet < 0 || intSet >= GameCore.strIncorrectSets.length) {
+      throw new IOException("snapshot has no Connections set " + intSet);
+    }
+    game.intConnectionsSet = intSet;
+    game.strIncorrectGroups = GameCore.strIncorrectSets[intSet];
+    game.strCorrectGroups = GameCore.strCorrectSets[intSet];
+    game.selectedBoxes = unpackGrid(in.readShort());
+    game.solvedGroups = unpackGrid(in.readShort());
+    // the selected words are rebuilt from the selected boxes
+    game.selectedWords.clear();
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        if (game.selectedBoxes[i][j]) {
+          game.selectedWords.add(game.strIncorrectGroups[i][j]);
+        }
+      }
+    }
+    game.strMessage = in.readUTF();
+    game.intLives = in.readByte();
+
+    // PLAYER AND FADES
+    game.intPlayerX = in.readShort();
+    game.intPlayerY = in.readShort();
+    game.intPrevPlayerX = game.intPlayerX;
+    game.intPrevPlayerY = game.intPlayerY;
+    game.intFacing = in.readByte();
+    game.fltExclamAlpha = in.readFloat();
+    game.fltElevatorAlpha = in.readFloat();
+
+    // CLOCK: moves the start time so the clock reads the saved time right now
+    int intElapsed = in.readInt();
+    game.intStartTime = game.clock.getAsInt() - intElapsed;
+    game.intElapsedTime = intElapsed;
+    // the intro screen shows no clock, and a new run starts it again from zero
+    if (game.intScreenNumber != 0) {
+      game.intShownSecond = -1;
+      game.updateElapsedTime();
+    }
+
+    // HIGHSCORES
+    game.strHighScores.clear();
+    int intScores = in.readByte();
+    for (int i = 0; i < intScores; i++) {
+      game.strHighScores.add(in.readUTF());
+    }
+    game.intHighScoreDifficulty.clear();
+    int intDifficulties = in.readByte();
+    for (int i = 0; i < intDifficulties; i++) {
+      game.intHighScoreDifficulty.add((int) in.readByte());
+    }
+    game.intHighScoreVersion++;
+  }
+  /**
+   * Saves a snapshot; written to a temporary file first so a half-written snapshot is never read
+   *
+   * @param file The file to save the snapshot to
+   * @param bytSnapshot The bytes of the snapshot
+   */
+  public static void save(File file, byte[] bytSnapshot) throws IOException {
+    File folder = file.getAbsoluteFile().getParentFile();
+    if (folder != null) {
+      folder.mkdirs();
+    }
+    File temp = new File(file.getPath() + ".tmp");
+    try (FileOutputStream out = new FileOutputStream(temp)) {
+      out.write(bytSnapshot);
+    }
+    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+  /**
+   * Writes a string that may be null
+   *
+   * @param out The stream to write to
+   * @param str The string, or null
+   */
+  static void writeNullable(DataOutputStream out, String str) throws IOException {
+    out.writeBoolean(str != null);
+    if (str != null) {
+      out.writeUTF(str);
+    }
+  }
+  /**
+   * Reads a string written by writeNullable()
+   *
+   * @param in The stream to read from
+   * @return the string, or null
+   */
+  static String readNullable(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+  /**
+   * Packs a 4x4 grid of booleans into the low 16 bits of an int, row by row
+   *
+   * @param isGrid The grid
+   * @return the packed grid
+   */
+  static int packGrid(boolean[][] isGrid) {
+    int intBits = 0;
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        if (isGrid[i][j]) {
+          intBits |= 1 << (i * 4 + j);
+        }
+      }
+    }
+    return intBits;
+  }
+  /**
+   * Unpacks a grid packed by packGrid()
+   *
+   * @param intBits The packed grid
+   * @return the 4x4 grid of booleans
+   */
+  static boolean[][] unpackGrid(int intBits) {
+    boolean[][] isGrid = new boolean[4][4];
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        isGrid[i][j] = (intBits & 1 << (i * 4 + j)) != 0;
+      }
+    }
+    return isGrid;
+  }
+}
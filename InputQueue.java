@@ -0,0 +1,135 @@
+/**
+* The program InputQueue.java passes key and mouse events from the thread Processing delivers them on to the game tick
+* It is a single-producer, single-consumer ring buffer of primitive arrays, so queueing and draining an event never allocates
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class InputQueue implements GameCore.InputSource {
+
+  // INITIALIZING RING BUFFER VARIABLES
+  int intCapacity; // always a power of two so a sequence number can be turned into a slot with a mask
+  int intMask;
+  int[] intTypes;
+  int[] intFirst; // key character, key code or x-coordinate, depending on the type
+  int[] intSecond; // key code or y-coordinate, depending on the type
+  int[] intTimes; // milliseconds on the game clock when the event arrived
+  volatile int intTail = 0; // sequence number of the next event to be written; only the producer changes it
+  volatile int intHead = 0; // sequence number of the next event to be read; only the consumer changes it
+
+  // INITIALIZING STATISTICS VARIABLES
+  int intDropped = 0; // events thrown away because the buffer was full
+  int intDrained = 0;
+  long lngTotalDelayMillis = 0; // time events spent waiting for a tick, summed over intDrained events
+
+  /**
+   * Creates an empty queue
+   *
+   * @param intMinCapacity The least number of events that can be waiting at once; rounded up to a power of two
+   */
+  public InputQueue(int intMinCapacity) {
+    intCapacity = Integer.highestOneBit(Math.max(2, intMinCapacity - 1)) << 1;
+    intMask = intCapacity - 1;
+    intTypes = new int[intCapacity];
+    intFirst = new int[intCapacity];
+    intSecond = new int[intCapacity];
+    intTimes = new int[intCapacity];
+  }
+  /**
+   * Queues a key press; called only from the producer thread
+   *
+   * @param chrKey The character typed
+   * @param intKeyCode The code of the key
+   * @param intTime Milliseconds on the game clock when the key was pressed
+   */
+  public void offerKeyPressed(char chrKey, int intKeyCode, int intTime) {
+    offer(GameCore.EVENT_KEY_PRESSED, chrKey, intKeyCode, intTime);
+  }
+  /**
+   * Queues a key release; called only from the producer thread
+   *
+   * @param intKeyCode The code of the key
+   * @param intTime Milliseconds on the game clock when the key was released
+   */
+  public void offerKeyReleased(int intKeyCode, int intTime) {
+    offer(GameCore.EVENT_KEY_RELEASED, intKeyCode, 0, intTime);
+  }
+  /**
+   * Queues a mouse click; called only from the producer thread
+   *
+   * @param intX X-coordinate of the click
+   * @param intY Y-coordinate of the click
+   * @param intTime Milliseconds on the game clock when the mouse was pressed
+   */
+  public void offerMousePressed(int intX, int intY, int intTime) {
+    offer(GameCore.EVENT_MOUSE_PRESSED, intX, intY, intTime);
+  }
+  /**
+   * Queues a mouse click on a floor along with the camera the screen was drawn with; called only from the producer thread
+   *
+   * @param intX X-coordinate of the click
+   * @param intY Y-coordinate of the click
+   * @param intCameraX Left edge of the floor shown on screen
+   * @param intCameraY Top edge of the floor shown on screen
+   * @param intTime Milliseconds on the game clock when the mouse was pressed
+   */
+  public void offerMousePressed(int intX, int intY, int intCameraX, int intCameraY, int intTime) {
+    offer(GameCore.EVENT_CLICK_CAMERA, intCameraX, intCameraY, intTime);
+    offer(GameCore.EVENT_MOUSE_PRESSED, intX, intY, intTime);
+  }
+  /**
+   * Writes an event into the next free slot, then publishes it by moving the tail
+   * The volatile write of the tail makes the slot visible to the consumer before the tail is
+   *
+   * @param intType Type of the event, one of the GameCore.EVENT_ constants
+   * @param intA First value of the event
+   * @param intB Second value of the event
+   * @param intTime Milliseconds on the game clock when the event arrived
+   * @return true if the event was queued, false if the buffer was full and the event was dropped
+   */
+  boolean offer(int intType, int intA, int intB, int intTime) {
+    int intSlotTail = intTail;
+    if (intSlotTail - intHead == intCapacity) {
+      intDropped++;
+      return false;
+    }
+    int intSlot = intSlotTail & intMask;
+    intTypes[intSlot] = intType;
+    intFirst[intSlot] = intA;
+    intSecond[intSlot] = intB;
+    intTimes[intSlot] = intTime;
+    intTail = intSlotTail + 1;
+    return true;
+  }
+  /**
+   * Passes every waiting event to the game in the order they arrived; called only from the consumer thread at the start of a tick
+   *
+   * @param game The game receiving the input
+   */
+  public void poll(GameCore game) {
+    int intSlotHead = intHead;
+    int intSlotTail = intTail;
+    if (intSlotHead == intSlotTail) {
+      return;
+    }
+    int intNow = game.clock.getAsInt();
+    while (intSlotHead != intSlotTail) {
+      int intSlot = intSlotHead & intMask;
+      game.applyEvent(intTypes[intSlot], intFirst[intSlot], intSecond[intSlot]);
+      lngTotalDelayMillis += intNow - intTimes[intSlot];
+      intDrained++;
+      intSlotHead++;
+      // frees the slot only after it has been read
+      intHead = intSlotHead;
+    }
+  }
+  /**
+   * Checks if any event is waiting for the next tick
+   *
+   * @return true if no events are waiting, false otherwise
+   */
+  public boolean isEmpty() {
+    return intHead == intTail;
+  }
+}
@@ -0,0 +1,131 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+* The program InputRecorder.java records every input event a game applies, with the tick it was applied on
+* Together with the session seed this is everything needed to play the run back exactly through InputReplay.java
+*
+* Log layout: magic, version, seed (8 bytes, big-endian), then one record per event and a final end record
+* Each record is varints of the ticks since the previous record, the event type, and the two event values zigzag encoded
+* Most records take 4 or 5 bytes, since events are usually only a few ticks apart and their values are small
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class InputRecorder {
+
+  // LOG FORMAT CONSTANTS
+  static final int MAGIC = 0x4E595452; // "NYTR"
+  static final int VERSION = 1;
+  static final int END_OF_LOG = 0x7F; // event type of the last record, whose tick is the tick the run ended on
+
+  // INITIALIZING LOG VARIABLES
+  long lngSeed;
+  byte[] bytLog = new byte[4096];
+  int intLength = 0;
+  long lngLastTick = 0;
+  int intEvents = 0;
+
+  /**
+   * Starts an empty log for a session
+   *
+   * @param lngSeed Seed of the random number generator the session's game was created with
+   */
+  public InputRecorder(long lngSeed) {
+    this.lngSeed = lngSeed;
+    for (int i = 0; i < 4; i++) {
+      writeByte(MAGIC >>> (24 - i * 8));
+    }
+    writeVarint(VERSION);
+    for (int i = 0; i < 8; i++) {
+      writeByte((int) (lngSeed >>> (56 - i * 8)));
+    }
+  }
+  /**
+   * Adds an event to the log; called by the game every time it applies an input event
+   *
+   * @param lngTick Tick the event was applied on
+   * @param intType Type of the event, one of the GameCore.EVENT_ constants
+   * @param intA First value of the event
+   * @param intB Second value of the event
+   */
+  public void record(long lngTick, int intType, int intA, int intB) {
+    writeVarint(lngTick - lngLastTick);
+    writeVarint(intType);
+    writeVarint(zigzag(intA));
+    writeVarint(zigzag(intB));
+    lngLastTick = lngTick;
+    intEvents++;
+  }
+  /**
+   * Gives the finished log; the recorder can keep recording afterwards
+   *
+   * @param lngEndTick Tick the run ended on, so a replay runs for exactly as long as the game did
+   * @return the bytes of the log
+   */
+  public byte[] toBytes(long lngEndTick) {
+    int intSavedLength = intLength;
+    long lngSavedLastTick = lngLastTick;
+    writeVarint(lngEndTick - lngLastTick);
+    writeVarint(END_OF_LOG);
+    byte[] bytFinished = Arrays.copyOf(bytLog, intLength);
+    // the end record is taken off again so later events carry on from the last real one
+    intLength = intSavedLength;
+    lngLastTick = lngSavedLastTick;
+    return bytFinished;
+  }
+  /**
+   * Saves the log; written to a temporary file first so a half-written log is never read
+   *
+   * @param file The file to save the log to
+   * @param lngEndTick Tick the run ended on
+   */
+  public void save(File file, long lngEndTick) throws IOException {
+    File folder = file.getAbsoluteFile().getParentFile();
+    if (folder != null) {
+      folder.mkdirs();
+    }
+    File temp = new File(file.getPath() + ".tmp");
+    try (FileOutputStream out = new FileOutputStream(temp)) {
+      out.write(toBytes(lngEndTick));
+    }
+    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+  /**
+   * Maps signed values to unsigned ones so small negative numbers stay short as varints
+   *
+   * @param intValue The signed value
+   * @return the zigzag encoded value
+   */
+  static long zigzag(int intValue) {
+    return ((intValue << 1) ^ (intValue >> 31)) & 0xFFFFFFFFL;
+  }
+  /**
+   * Writes a non-negative number 7 bits at a time, lowest bits first, with the top bit of each byte set if more bytes follow
+   *
+   * @param lngValue The number to write
+   */
+  void writeVarint(long lngValue) {
+    while ((lngValue & ~0x7FL) != 0) {
+      writeByte((int) (lngValue & 0x7F) | 0x80);
+      lngValue >>>= 7;
+    }
+    writeByte((int) lngValue);
+  }
+  /**
+   * Appends one byte to the log, growing it when it is full
+   *
+   * @param intByte The byte to write, in the low 8 bits
+   */
+  void writeByte(int intByte) {
+    if (intLength == bytLog.length) {
+      bytLog = Arrays.copyOf(bytLog, bytLog.length * 2);
+    }
+    bytLog[intLength++] = (byte) intByte;
+  }
+}
@@ -0,0 +1,164 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+* The program InputReplay.java plays a log written by InputRecorder.java back through the game rules
+* The game is ticked as fast as the machine allows with no frame waits, for support tickets and checking speedrun submissions
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class InputReplay implements GameCore.InputSource {
+
+  // INITIALIZING LOG VARIABLES
+  byte[] bytLog;
+  int intPos;
+  long lngSeed;
+
+  // INITIALIZING NEXT RECORD VARIABLES
+  long lngNextTick = 0;
+  int intNextType, intNextA, intNextB;
+  boolean isFinished = false;
+  long lngEndTick = -1; // tick of the end record, or -1 if the log was cut off before it
+
+  /**
+   * Reads the header of a log and the first record
+   *
+   * @param bytLog The bytes of the log
+   */
+  public InputReplay(byte[] bytLog) throws IOException {
+    this.bytLog = bytLog;
+    int intMagic = 0;
+    for (int i = 0; i < 4; i++) {
+      intMagic = intMagic << 8 | readByte();
+    }
+    if (intMagic != InputRecorder.MAGIC) {
+      throw new IOException("not an input log");
+    }
+    long lngVersion = readVarint();
+    if (lngVersion != InputRecorder.VERSION) {
+      throw new IOException("unsupported input log version " + lngVersion);
+    }
+    for (int i = 0; i < 8; i++) {
+      lngSeed = lngSeed << 8 | readByte();
+    }
+    readNext();
+  }
+  /**
+   * Reads a log from a file
+   *
+   * @param file The log file
+   * @return the replay of the log
+   */
+  public static InputReplay load(File file) throws IOException {
+    return new InputReplay(Files.readAllBytes(file.toPath()));
+  }
+  /**
+   * Creates a game with the recorded session's seed that takes its input from this replay
+   * Its clock counts ticks, so the in-game clock shows how many ticks the run took rather than how long the replay took
+   *
+   * @return the game, ready to be ticked
+   */
+  public GameCore createGame() {
+    return new GameCore(new Random(lngSeed), this);
+  }
+  /**
+   * Plays the whole log back at maximum speed
+   *
+   * @return the game as it was when the recording ended
+   */
+  public GameCore run() {
+    GameCore game = createGame();
+    while (lngEndTick == -1 ? !isFinished : game.lngTicks < lngEndTick) {
+      game.tick();
+    }
+    // applies any events that came in after the last tick the recording ran
+    poll(game);
+    return game;
+  }
+  /**
+   * Passes every recorded event for the current tick to the game
+   *
+   * @param game The game receiving the input
+   */
+  public void poll(GameCore game) {
+    while (!isFinished && lngNextTick == game.lngTicks) {
+      game.applyEvent(intNextType, intNextA, intNextB);
+      readNext();
+    }
+  }
+  /**
+   * Reads the next record of the log, marking the replay finished at the end record or at the end of a cut-off log
+   */
+  void readNext() {
+    if (intPos >= bytLog.length) {
+      isFinished = true;
+      return;
+    }
+    lngNextTick += readVarint();
+    int intType = (int) readVarint();
+    if (intType == InputRecorder.END_OF_LOG) {
+      lngEndTick = lngNextTick;
+      isFinished = true;
+      return;
+    }
+    intNextType = intType;
+    intNextA = unzigzag(readVarint());
+    intNextB = unzigzag(readVarint());
+  }
+  /**
+   * Reverses the zigzag encoding of InputRecorder.java
+   *
+   * @param lngValue The zigzag encoded value
+   * @return the signed value
+   */
+  static int unzigzag(long lngValue) {
+    int intValue = (int) lngValue;
+    return (intValue >>> 1) ^ -(intValue & 1);
+  }
+  /**
+   * Reads a varint written by InputRecorder.java
+   *
+   * @return the number read
+   */
+  long readVarint() {
+    long lngValue = 0;
+    int intShift = 0;
+    int intByte;
+    do {
+      intByte = readByte();
+      lngValue |= (long) (intByte & 0x7F) << intShift;
+      intShift += 7;
+    } while ((intByte & 0x80) != 0);
+    return lngValue;
+  }
+  /**
+   * Reads one byte of the log, or 0 past its end so a cut-off log finishes instead of throwing
+   *
+   * @return the byte, from 0 to 255
+   */
+  int readByte() {
+    if (intPos >= bytLog.length) {
+      intPos++;
+      return 0;
+    }
+    return bytLog[intPos++] & 0xFF;
+  }
+  /**
+   * Replays every log given on the command line and prints where each run ended up
+   *
+   * @param args Paths of the log files
+   */
+  public static void main(String[] args) throws IOException {
+    for (String strPath : args) {
+      InputReplay replay = load(new File(strPath));
+      long lngStart = System.nanoTime();
+      GameCore game = replay.run();
+      double dblMillis = (System.nanoTime() - lngStart) / 1e6;
+      System.out.println(strPath + ": seed " + replay.lngSeed + ", " + game.lngTicks + " ticks (" + game.strTime + " of game time), screen " + game.intScreenNumber + ", replayed in " + String.format("%.1f", dblMillis) + " ms");
+    }
+  }
+}
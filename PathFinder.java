@@ -0,0 +1,302 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+* The program PathFinder.java finds the way across one floor for click-to-move, walking around walls and the desk
+*
+* The floor is split into cells of intCellSize pixels in the CollisionMask's player-position space. A cell is walkable if the
+* player can stand anywhere in it, so walking in a straight line between the middles of two neighbouring walkable cells never
+* meets a wall. Paths are found with A* over the cells, moving in 8 directions without cutting corners.
+* A search only expands a limited number of cells per call so it never holds up a tick; a long search carries on next tick.
+* Finished paths are kept per start and goal cell, so clicking the same spot again costs a lookup.
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class PathFinder {
+
+  // SEARCH CONSTANTS
+  static final int intCellSize = 8; // a floor is 100 by 75 cells
+  static final int STRAIGHT = 10; // cost of moving one cell across
+  static final int DIAGONAL = 14; // cost of moving one cell diagonally, about 10 * sqrt(2)
+  static final int intCacheSize = 64; // paths kept per floor
+  static final int[] intStepX = {1, -1, 0, 0, 1, 1, -1, -1};
+  static final int[] intStepY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+  // INITIALIZING GRID VARIABLES
+  int intColumns, intRows;
+  boolean[] isWalkable;
+
+  // INITIALIZING SEARCH VARIABLES
+  int[] intCost; // cheapest known cost from the start to each cell
+  int[] intParent; // the cell each cell was reached from
+  int[] intSeen; // the search that last reached each cell, so the arrays never need clearing
+  int[] intClosed; // the search that last expanded each cell
+  int[] intHeapCells = new int[256]; // open cells, as a binary heap ordered by intHeapKeys
+  int[] intHeapKeys = new int[256];
+  int intHeapSize;
+  int intSearch; // counts searches, starting from 1
+  int intStart, intGoal;
+  int intBest; // the reached cell closest to the goal, used when the goal cannot be reached
+  boolean isSearching;
+  Map<Long, int[]> paths = new LinkedHashMap<>(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+      return size() > intCacheSize;
+    }
+  };
+
+  /**
+   * Works out which cells of a floor are walkable
+   *
+   * @param mask The floor's collision mask
+   */
+  public PathFinder(CollisionMask mask) {
+    intColumns = mask.intColumns * CollisionMask.intCellSize / intCellSize;
+    intRows = mask.intRows * CollisionMask.intCellSize / intCellSize;
+    isWalkable = new boolean[intColumns * intRows];
+    for (int intRow = 0; intRow < intRows; intRow++) {
+      for (int intColumn = 0; intColumn < intColumns; intColumn++) {
+        isWalkable[intRow * intColumns + intColumn] = isFree(mask, intColumn * intCellSize, intRow * intCellSize);
+      }
+    }
+    intCost = new int[isWalkable.length];
+    intParent = new int[isWalkable.length];
+    intSeen = new int[isWalkable.length];
+    intClosed = new int[isWalkable.length];
+  }
+  /**
+   * Checks if the player can stand at every position of a cell
+   *
+   * @param mask The floor's collision mask
+   * @param intX Left edge of the cell
+   * @param intY Top edge of the cell
+   * @return true if no position of the cell is in a wall or the desk, false otherwise
+   */
+  static boolean isFree(CollisionMask mask, int intX, int intY) {
+    for (int y = intY; y < intY + intCellSize; y += CollisionMask.intCellSize) {
+      for (int x = intX; x < intX + intCellSize; x += CollisionMask.intCellSize) {
+        if (mask.isBlocked(x, y)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+  /**
+   * Finds the cell a player position is in, clamped to the floor
+   *
+   * @param intX X-coordinate of the player
+   * @param intY Y-coordinate of the player
+   * @return the index of the cell
+   */
+  public int cellAt(int intX, int intY) {
+    int intColumn = Math.max(0, Math.min(intColumns - 1, Math.floorDiv(intX, intCellSize)));
+    int intRow = Math.max(0, Math.min(intRows - 1, Math.floorDiv(intY, intCellSize)));
+    return intRow * intColumns + intColumn;
+  }
+  /**
+   * Gives the player position in the middle of a cell
+   *
+   * @param intCell The index of the cell
+   * @return the x-coordinate
+   */
+  public int middleX(int intCell) {
+    return intCell % intColumns * intCellSize + intCellSize / 2;
+  }
+  /**
+   * Gives the player position in the middle of a cell
+   *
+   * @param intCell The index of the cell
+   * @return the y-coordinate
+   */
+  public int middleY(int intCell) {
+    return intCell / intColumns * intCellSize + intCellSize / 2;
+  }
+  /**
+   * Starts looking for a path between two cells, dropping any search still running
+   *
+   * @param intStartCell Cell the player is in
+   * @param intGoalCell Cell the player is heading for
+   * @return the path if it was found before, or null if search() has to be called until it finishes
+   */
+  public int[] start(int intStartCell, int intGoalCell) {
+    int[] intPath = paths.get(key(intStartCell, intGoalCell));
+    if (intPath != null) {
+      isSearching = false;
+      return intPath;
+    }
+    intSearch++;
+    intStart = intStartCell;
+    intGoal = intGoalCell;
+    intBest = intStartCell;
+    intHeapSize = 0;
+    intSeen[intStartCell] = intSearch;
+    intCost[intStartCell] = 0;
+    intParent[intStartCell] = -1;
+    push(intStartCell, estimate(intStartCell));
+    isSearching = true;
+    return null;
+  }
+  /**
+   * Carries on the search started by start()
+   * If the goal cannot be reached, the path leads to the reached cell closest to it
+   *
+   * @param intBudget Most cells to expand in this call
+   * @return the cells of the path from the start to the goal, keeping only the corners, or null if the search is not finished
+   */
+  public int[] search(int intBudget) {
+    if (!isSearching) {
+      return null;
+    }
+    for (int i = 0; i < intBudget; i++) {
+      if (intHeapSize == 0 || intHeapCells[0] == intGoal) {
+        isSearching = false;
+        int[] intPath = trace(intHeapSize == 0 ? intBest : intGoal);
+        paths.put(key(intStart, intGoal), intPath);
+        return intPath;
+      }
+      int intCell = pop();
+      // a cell can be in the heap more than once; only its cheapest entry is expanded
+      if (intClosed[intCell] == intSearch) {
+        continue;
+      }
+      intClosed[intCell] = intSearch;
+      int intEstimate = estimate(intCell);
+      if (intEstimate < estimate(intBest) || intEstimate == estimate(intBest) && intCost[intCell] < intCost[intBest]) {
+        intBest = intCell;
+      }
+      int intColumn = intCell % intColumns;
+      int intRow = intCell / intColumns;
+      for (int d = 0; d < intStepX.length; d++) {
+        int intNextColumn = intColumn + intStepX[d];
+        int intNextRow = intRow + intStepY[d];
+        if (!isWalkable(intNextColumn, intNextRow)) {
+          continue;
+        }
+        // diagonal steps need both cells beside them free, so the player never clips a corner
+        if (d >= 4 && (!isWalkable(intNextColumn, intRow) || !isWalkable(intColumn, intNextRow))) {
+          continue;
+        }
+        int intNext = intNextRow * intColumns + intNextColumn;
+        int intNextCost = intCost[intCell] + (d >= 4 ? DIAGONAL : STRAIGHT);
+        if (intSeen[intNext] != intSearch || intNextCost < intCost[intNext]) {
+          intSeen[intNext] = intSearch;
+          intCost[intNext] = intNextCost;
+          intParent[intNext] = intCell;
+          push(intNext, intNextCost + estimate(intNext));
+        }
+      }
+    }
+    return null;
+  }
+  /**
+   * Checks if a cell is on the floor and walkable
+   *
+   * @param intColumn Column of the cell
+   * @param intRow Row of the cell
+   * @return true if the player can walk through the cell, false otherwise
+   */
+  boolean isWalkable(int intColumn, int intRow) {
+    return intColumn >= 0 && intColumn < intColumns && intRow >= 0 && intRow < intRows && isWalkable[intRow * intColumns + intColumn];
+  }
+  /**
+   * Estimates the cost from a cell to the goal, moving diagonally as far as possible and then straight
+   *
+   * @param intCell The index of the cell
+   * @return the cost with no walls in the way, which is never more than the real cost
+   */
+  int estimate(int intCell) {
+    int intDx = Math.abs(intCell % intColumns - intGoal % intColumns);
+    int intDy = Math.abs(intCell / intColumns - intGoal / intColumns);
+    return STRAIGHT * Math.max(intDx, intDy) + (DIAGONAL - STRAIGHT) * Math.min(intDx, intDy);
+  }
+  /**
+   * Follows the parents back from the end of a path, keeping the start, the end and every cell where the direction changes
+   *
+   * @param intEnd Last cell of the path
+   * @return the kept cells in order from the start
+   */
+  int[] trace(int intEnd) {
+    int[] intCells = new int[16];
+    int intCount = 0;
+    int intDirection = 0;
+    for (int intCell = intEnd; intCell != -1; intCell = intParent[intCell]) {
+      int intFrom = intParent[intCell];
+      int intNextDirection = intFrom == -1 ? 0 : intCell - intFrom;
+      if (intCount == 0 || intFrom == -1 || intNextDirection != intDirection) {
+        if (intCount == intCells.length) {
+          intCells = Arrays.copyOf(intCells, intCount * 2);
+        }
+        intCells[intCount++] = intCell;
+      }
+      intDirection = intNextDirection;
+    }
+    // the cells were collected from the end
+    for (int i = 0; i < intCount / 2; i++) {
+      int intSwap = intCells[i];
+      intCells[i] = intCells[intCount - 1 - i];
+      intCells[intCount - 1 - i] = intSwap;
+    }
+    return Arrays.copyOf(intCells, intCount);
+  }
+  /**
+   * Makes the cache key of a path
+   *
+   * @param intStartCell Cell the path starts in
+   * @param intGoalCell Cell the path was asked to reach
+   * @return the key
+   */
+  static long key(int intStartCell, int intGoalCell) {
+    return (long) intStartCell << 32 | intGoalCell;
+  }
+  /**
+   * Adds a cell to the open heap
+   *
+   * @param intCell The index of the cell
+   * @param intKey Its cost so far plus its estimate
+   */
+  void push(int intCell, int intKey) {
+    if (intHeapSize == intHeapCells.length) {
+      intHeapCells = Arrays.copyOf(intHeapCells, intHeapSize * 2);
+      intHeapKeys = Arrays.copyOf(intHeapKeys, intHeapSize * 2);
+    }
+    int i = intHeapSize++;
+    // moves the new cell up past every parent with a bigger key
+    while (i > 0 && intHeapKeys[(i - 1) / 2] > intKey) {
+      intHeapCells[i] = intHeapCells[(i - 1) / 2];
+      intHeapKeys[i] = intHeapKeys[(i - 1) / 2];
+      i = (i - 1) / 2;
+    }
+    intHeapCells[i] = intCell;
+    intHeapKeys[i] = intKey;
+  }
+  /**
+   * Takes the cell with the smallest key off the open heap
+   *
+   * @return the index of the cell
+   */
+  int pop() {
+    int intTop = intHeapCells[0];
+    int intCell = intHeapCells[--intHeapSize];
+    int intKey = intHeapKeys[intHeapSize];
+    int i = 0;
+    // moves the last cell down from the top past every child with a smaller key
+    while (2 * i + 1 < intHeapSize) {
+      int intChild = 2 * i + 1;
+      if (intChild + 1 < intHeapSize && intHeapKeys[intChild + 1] < intHeapKeys[intChild]) {
+        intChild++;
+      }
+      if (intHeapKeys[intChild] >= intKey) {
+        break;
+      }
+      intHeapCells[i] = intHeapCells[intChild];
+      intHeapKeys[i] = intHeapKeys[intChild];
+      i = intChild;
+    }
+    intHeapCells[i] = intCell;
+    intHeapKeys[i] = intKey;
+    return intTop;
+  }
+}
@@ -1,7 +1,36 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
 
 import processing.core.PApplet;
+import processing.core.PGraphics;
 import processing.core.PImage;
 
 /**
@@ -36,6 +65,15 @@ public class Sketch extends PApplet {
       this.fltH = fltH;
       this.strLabel = strLabel;
     }
+    /**
+     * Creates a button drawn over one of the game's hitboxes
+     * 
+     * @param hitbox Area of the button that the game responds to clicks in
+     * @param strLabel Text displayed on the button
+     */
+    Button(GameCore.Hitbox hitbox, String strLabel) {
+      this(hitbox.fltX, hitbox.fltY, hitbox.fltW, hitbox.fltH, strLabel);
+    }
     /**
      * Displays button and changes colour based on player input
      */
@@ -47,17 +85,18 @@ public class Sketch extends PApplet {
         fill(0, 102, 153); // Default color
       }
       if (strLabel == "Change Difficulty"){
-        if (intWordleDifficulty == 0){
+        if (game.intWordleDifficulty == 0){
           fill(0, 255, 0);
         }
-        if (intWordleDifficulty == 1){
+        if (game.intWordleDifficulty == 1){
           fill(255, 255, 0);
         }
-        if (intWordleDifficulty == 2){
+        if (game.intWordleDifficulty == 2){
           fill(255, 0, 0);
         }
       }
       // Drawing button rectangle
+      markDirty(fltX, fltY, fltW, fltH);
       rect(fltX, fltY, fltW, fltH);
       if (strLabel == "Change Difficulty"){
         fill(0);
@@ -67,7 +106,7 @@ public class Sketch extends PApplet {
       }
       // Writing button text
       textAlign(CENTER, CENTER);
-      text(strLabel, fltX + fltW / 2, fltY + fltH / 2);
+      drawTextRun(strLabel, fltX + fltW / 2, fltY + fltH / 2);
     }
     /**
      * Detects if the user has clicked the button
@@ -78,88 +117,489 @@ public class Sketch extends PApplet {
     }
   }
   
+  // This class keeps track of an asset that is being decoded on the asset loader threads
+  class AssetRequest<T> {
+    // Initializing class specific variables
+    Future<T> future;
+    Consumer<T> onLoaded;
+    boolean isAssigned = false;
+    /**
+     * Stores the pending asset and what to do with it once it has been decoded
+     * 
+     * @param future The asset being decoded on the asset loader threads
+     * @param onLoaded Assigns the decoded asset to its variable on the animation thread
+     */
+    AssetRequest(Future<T> future, Consumer<T> onLoaded) {
+      this.future = future;
+      this.onLoaded = onLoaded;
+    }
+    /**
+     * Hands the decoded asset to its variable
+     */
+    void assign() throws InterruptedException, ExecutionException {
+      onLoaded.accept(future.get());
+    }
+  }
+
+  // This class stores where a single sprite is located inside the sprite atlas
+  class SpriteRegion {
+    // Initializing class specific variables
+    int intX, intY, intW, intH;
+    /**
+     * Computes input x, y, w and h values and localizes in terms of the class
+     * 
+     * @param intX x-coordinate of the sprite inside the atlas
+     * @param intY y-coordinate of the sprite inside the atlas
+     * @param intW Width of the sprite
+     * @param intH Height of the sprite
+     */
+    SpriteRegion(int intX, int intY, int intW, int intH) {
+      this.intX = intX;
+      this.intY = intY;
+      this.intW = intW;
+      this.intH = intH;
+    }
+  }
+
+  // This class holds the packed sprite atlas image and the index of every sprite inside it
+  class SpriteAtlas {
+    // Initializing class specific variables
+    PImage img;
+    HashMap<String, SpriteRegion> regions = new HashMap<>();
+    /**
+     * Looks up a sprite in the atlas index
+     * 
+     * @param strName Name of the sprite
+     * @return the region of the sprite inside the atlas image
+     */
+    SpriteRegion get(String strName) {
+      return regions.get(strName);
+    }
+  }
+
+  // This class stores a line of text that has already been rendered into an image
+  class TextRun {
+    // Initializing class specific variables
+    PImage img;
+    float fltOffsetX, fltOffsetY;
+    /**
+     * Stores the rendered text and where to draw it relative to the point passed to text()
+     * 
+     * @param img The rendered text
+     * @param fltOffsetX Horizontal offset from the text position to the left of the image
+     * @param fltOffsetY Vertical offset from the text position to the top of the image
+     */
+    TextRun(PImage img, float fltOffsetX, float fltOffsetY) {
+      this.img = img;
+      this.fltOffsetX = fltOffsetX;
+      this.fltOffsetY = fltOffsetY;
+    }
+  }
+
+  // This class darkens a band of rows of the fade snapshot, splitting itself across cores until the bands are small
+  class FadeRowsTask extends RecursiveAction {
+    // Initializing class specific variables
+    private static final long serialVersionUID = 1L;
+    int intStartRow, intEndRow, intKeep;
+    /**
+     * Computes input row range and brightness and localizes in terms of the class
+     * 
+     * @param intStartRow First row to darken
+     * @param intEndRow Row after the last row to darken
+     * @param intKeep How much of each colour channel to keep, from 0 (black) to 256 (unchanged)
+     */
+    FadeRowsTask(int intStartRow, int intEndRow, int intKeep) {
+      this.intStartRow = intStartRow;
+      this.intEndRow = intEndRow;
+      this.intKeep = intKeep;
+    }
+    /**
+     * Darkens the rows directly if there are few enough, otherwise splits them in half
+     */
+    protected void compute() {
+      if (intEndRow - intStartRow <= intFadeRowsPerTask) {
+        for (int i = intStartRow * width; i < intEndRow * width; i++) {
+          int intPixel = fadeSource[i];
+          int intRed = ((intPixel >> 16) & 0xFF) * intKeep >> 8;
+          int intGreen = ((intPixel >> 8) & 0xFF) * intKeep >> 8;
+          int intBlue = (intPixel & 0xFF) * intKeep >> 8;
+          fadeFrame.pixels[i] = 0xFF000000 | (intRed << 16) | (intGreen << 8) | intBlue;
+        }
+      }
+      else {
+        int intMiddle = (intStartRow + intEndRow) / 2;
+        invokeAll(new FadeRowsTask(intStartRow, intMiddle, intKeep), new FadeRowsTask(intMiddle, intEndRow, intKeep));
+      }
+    }
+  }
+
+  // This class keeps only the backgrounds around the current screen decoded and evicts the least recently used ones over a memory budget
+  class BackgroundCache {
+    // Initializing class specific variables
+    String[] strPaths;
+    long lngBudgetBytes;
+    long lngResidentBytes = 0;
+    LinkedHashMap<Integer, PImage> resident = new LinkedHashMap<>(16, 0.75f, true); // ordered from least to most recently used
+    HashMap<Integer, Future<PImage>> pending = new HashMap<>();
+    boolean[] isPinned;
+    /**
+     * Computes input paths and budget and localizes in terms of the class
+     * 
+     * @param strPaths Path of the image file of each background
+     * @param lngBudgetBytes Most bytes of decoded pixels to keep before unpinned backgrounds are evicted
+     */
+    BackgroundCache(String[] strPaths, long lngBudgetBytes) {
+      this.strPaths = strPaths;
+      this.lngBudgetBytes = lngBudgetBytes;
+      this.isPinned = new boolean[strPaths.length];
+    }
+    /**
+     * Starts decoding a background on the asset loader threads if it is not already decoded or decoding
+     * 
+     * @param intId Index of the background
+     */
+    void prefetch(int intId) {
+      if (resident.containsKey(intId) || pending.containsKey(intId)) {
+        return;
+      }
+      pending.put(intId, assetLoader.submit(() -> loadImageCached(strPaths[intId])));
+    }
+    /**
+     * Gets a decoded background, waiting for it to finish decoding if it is not ready yet
+     * 
+     * @param intId Index of the background
+     * @return the decoded background, or null if it could not be decoded
+     */
+    PImage get(int intId) {
+      poll();
+      PImage img = resident.get(intId);
+      if (img == null) {
+        prefetch(intId);
+        try {
+          img = pending.remove(intId).get();
+        }
+        catch (InterruptedException | ExecutionException e) {
+          println("Could not load image: " + e.getMessage());
+        }
+        store(intId, img);
+      }
+      return img;
+    }
+    /**
+     * Checks if a background has finished decoding
+     * 
+     * @param intId Index of the background
+     * @return true if the background is decoded, false otherwise
+     */
+    boolean isResident(int intId) {
+      poll();
+      return resident.containsKey(intId);
+    }
+    /**
+     * Moves every background that has finished decoding into the cache
+     */
+    void poll() {
+      Iterator<Map.Entry<Integer, Future<PImage>>> it = pending.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<Integer, Future<PImage>> entry = it.next();
+        if (entry.getValue().isDone()) {
+          it.remove();
+          try {
+            store(entry.getKey(), entry.getValue().get());
+          }
+          catch (InterruptedException | ExecutionException e) {
+            println("Could not load image: " + e.getMessage());
+          }
+        }
+      }
+    }
+    /**
+     * Adds a decoded background to the cache and evicts backgrounds if it is now over budget
+     * 
+     * @param intId Index of the background
+     * @param img The decoded background
+     */
+    void store(int intId, PImage img) {
+      if (img == null) {
+        return;
+      }
+      resident.put(intId, img);
+      lngResidentBytes += (long) img.width * img.height * 4;
+      evict();
+    }
+    /**
+     * Keeps the given backgrounds decoded, prefetching any that are missing, and lets every other background be evicted
+     * 
+     * @param intIds Indexes of the backgrounds to keep
+     */
+    void pin(int[] intIds) {
+      Arrays.fill(isPinned, false);
+      for (int intId : intIds) {
+        isPinned[intId] = true;
+        prefetch(intId);
+      }
+      evict();
+    }
+    /**
+     * Drops the least recently used unpinned backgrounds until the cache is within its budget
+     */
+    void evict() {
+      Iterator<Map.Entry<Integer, PImage>> it = resident.entrySet().iterator();
+      while (lngResidentBytes > lngBudgetBytes && it.hasNext()) {
+        Map.Entry<Integer, PImage> entry = it.next();
+        if (!isPinned[entry.getKey()]) {
+          lngResidentBytes -= (long) entry.getValue().width * entry.getValue().height * 4;
+          it.remove();
+        }
+      }
+    }
+  }
+
+  // This class keeps only the chunks of a chunked floor around the camera decoded, loading them on the asset loader threads as the camera comes near
+  class ChunkCache {
+    // Initializing class specific variables
+    FloorChunks floor;
+    HashMap<Integer, PImage> resident = new HashMap<>();
+    HashMap<Integer, Future<PImage>> pending = new HashMap<>();
+    /**
+     * Computes input floor and localizes in terms of the class
+     * 
+     * @param floor How the floor's background is cut into chunks
+     */
+    ChunkCache(FloorChunks floor) {
+      this.floor = floor;
+    }
+    /**
+     * Starts decoding the chunks the camera is close to and drops the ones it has left far behind
+     * 
+     * @param intCameraX X-coordinate of the floor at the left edge of the screen
+     * @param intCameraY Y-coordinate of the floor at the top edge of the screen
+     */
+    void retain(int intCameraX, int intCameraY) {
+      poll();
+      for (int intChunk = 0; intChunk < floor.intColumns * floor.intRows; intChunk++) {
+        if (isNear(intChunk, intCameraX, intCameraY, intChunkPrefetchMargin)) {
+          if (!resident.containsKey(intChunk) && !pending.containsKey(intChunk)) {
+            String strPath = floor.chunkPath(intChunk);
+            pending.put(intChunk, assetLoader.submit(() -> loadImageCached(strPath)));
+          }
+        }
+        // the wider margin to evict at stops a chunk being dropped and loaded again as the camera wobbles on its edge
+        else if (!isNear(intChunk, intCameraX, intCameraY, intChunkEvictMargin)) {
+          resident.remove(intChunk);
+          Future<PImage> future = pending.remove(intChunk);
+          if (future != null) {
+            future.cancel(false);
+          }
+        }
+      }
+    }
+    /**
+     * Checks if a chunk is on screen or within a margin of it
+     * 
+     * @param intChunk Index of the chunk
+     * @param intCameraX X-coordinate of the floor at the left edge of the screen
+     * @param intCameraY Y-coordinate of the floor at the top edge of the screen
+     * @param intMargin Margin around the screen, in chunks
+     * @return true if the chunk is within the margin, false otherwise
+     */
+    boolean isNear(int intChunk, int intCameraX, int intCameraY, int intMargin) {
+      int intMarginPixels = intMargin * floor.intChunkSize;
+      int intX = intChunk % floor.intColumns * floor.intChunkSize;
+      int intY = intChunk / floor.intColumns * floor.intChunkSize;
+      return intX + floor.intChunkSize > intCameraX - intMarginPixels && intX < intCameraX + width + intMarginPixels
+        && intY + floor.intChunkSize > intCameraY - intMarginPixels && intY < intCameraY + height + intMarginPixels;
+    }
+    /**
+     * Moves every chunk that has finished decoding into the cache
+     */
+    void poll() {
+      Iterator<Map.Entry<Integer, Future<PImage>>> it = pending.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<Integer, Future<PImage>> entry = it.next();
+        if (entry.getValue().isDone()) {
+          it.remove();
+          try {
+            PImage img = entry.getValue().get();
+            if (img != null) {
+              resident.put(entry.getKey(), img);
+            }
+          }
+          catch (InterruptedException | ExecutionException e) {
+            println("Could not load image: " + e.getMessage());
+          }
+        }
+      }
+    }
+    /**
+     * Draws the chunks on screen
+     * 
+     * @param intCameraX X-coordinate of the floor at the left edge of the screen
+     * @param intCameraY Y-coordinate of the floor at the top edge of the screen
+     * @return true if every chunk on screen was drawn, false if some are still decoding
+     */
+    boolean draw(int intCameraX, int intCameraY) {
+      boolean isComplete = true;
+      for (int intChunk = 0; intChunk < floor.intColumns * floor.intRows; intChunk++) {
+        if (!isNear(intChunk, intCameraX, intCameraY, 0)) {
+          continue;
+        }
+        PImage img = resident.get(intChunk);
+        if (img == null) {
+          isComplete = false;
+        }
+        else {
+          image(img, intChunk % floor.intColumns * floor.intChunkSize - intCameraX, intChunk / floor.intColumns * floor.intChunkSize - intCameraY);
+        }
+      }
+      return isComplete;
+    }
+    /**
+     * Drops every chunk, once the player has left the floor
+     */
+    void clear() {
+      for (Future<PImage> future : pending.values()) {
+        future.cancel(false);
+      }
+      pending.clear();
+      resident.clear();
+    }
+  }
+
+  // INITIALIZING SCREEN REGISTRY VARIABLES
+  Screen[] screens; // indexed by intScreenNumber
+  int intLastFrameTime = 0;
+
+  // INITIALIZING FIXED TIMESTEP VARIABLES
+  int intRenderRate = 60; // frames drawn per second; lowering it does not slow the game down
+  float fltTickSeconds; // seconds per tick of the game rules
+  float fltTickAccumulator = 0;
+  int intMaxTicksPerFrame = 30;
+  boolean isProfiling = false; // prints the average time spent updating and rendering each frame
+  int intProfileWindow = 300;
+  int intProfiledFrames = 0;
+  long lngTotalUpdateNanos, lngTotalRenderNanos;
+
   // INITIALIZING BUTTON AND POP UP VARIABLES
   Button highscoreButton, difficultyButton, playAgainButton, startButton, gameButton, infoButton, backButton;
-  int intScreenNumber = 0; // 0 = Intro Screen, 1 = Setting1, 2 = Game1, 3 = Setting2, 4 = Game2, 5 = Setting3, 6 = Game3, 7 = Ending Screen, 8 = Information screen
-  boolean showPopup = false; // screen specific pop up info screen
-  boolean showWinPopup = false;
-  boolean showLosePopup = false;
+
+  // INITIALIZING GAME RULE VARIABLES
+  GameCore game; // every rule and piece of game state; this class only draws it and passes input to it
+  InputQueue inputQueue; // input events wait here until the start of the next tick, so draw() never sees a half-handled event
+  int intInputQueueSize = 256;
+  long lngSessionSeed; // drives every random choice in the game, so a recorded session can be played back exactly
+  InputRecorder recorder;
+  String strReplayFolder = "replays";
 
   // INITIALIZING BACKGROUND IMAGE VARIABLES
-  boolean isSwitchButtonDisplayed;
-  PImage setting0, setting1, setting2, setting3, setting4_1, setting4_2, setting5_1, setting5_2, setting6, setting7;
-  boolean isScreenFaded;
+  // Background images: 0 = Intro, 1 = Boss room, 2 = Plank walk, 3 = Top floor, 4 = Floor 2 closed, 5 = Floor 2 open,
+  // 6 = Floor 1 closed, 7 = Floor 1 open, 8 = Ground floor, 9 = Outro
+  String[] strBackgroundPaths = {
+    "images/IntroScreen.png", "images/BossRoom.png", "images/PlankWalk.png", "images/TopFloor.png",
+    "images/Floor2Closed.png", "images/Floor2Open.png", "images/Floor1Closed.png", "images/Floor1Open.png",
+    "images/GroundFloor.png", "images/OutroScreen.png"
+  };
+  int[][] intScreenBackgrounds = {{0}, {1}, {2}, {3}, {4, 5}, {}, {6, 7}, {}, {8}, {9}}; // backgrounds used by each screen
+  int[][] intScreenNeighbours = {{1}, {2}, {3}, {4}, {5, 6}, {4}, {7, 8}, {6}, {9}, {0}}; // screens reachable from each screen
+  int intBackgroundBudgetMB = 12; // decoded backgrounds kept before the least recently used ones are evicted
+  int intPixelCacheMagic = 0x41524742; // "ARGB", the first 4 bytes of every raw pixel cache file
+  int intPixelCacheVersion = 2;
+  int intPixelCacheHeaderBytes = 44;
+  int intPixelCacheModifiedOffset = 16; // where the PNG's last-modified time sits in the header
+  BackgroundCache backgrounds;
+  int intResidentScreen = -1;
 
-  // INITIALIZING BROKEN BRIDGE GAME VARIABLES
-  boolean isPlank1Show = true;
-  boolean isPlank2Show = true;
-  boolean isPlank3Show = true;
-  PImage woodenPlank;
-  float fltFallingAlpha = 0f;
+  // INITIALIZING CAMERA AND CHUNK VARIABLES
+  ChunkCache[] backgroundChunks; // chunks of each background that has been cut up with FloorChunks, or null for backgrounds decoded whole
+  int intChunkPrefetchMargin = 1; // chunks off screen that start decoding before the camera reaches them
+  int intChunkEvictMargin = 2; // chunks off screen past which decoded chunks are dropped
+  int intCameraX, intCameraY; // part of the floor shown this frame; both 0 on floors the size of the screen
+
+  // INITIALIZING ASSET LOADING VARIABLES
+  ExecutorService assetLoader;
+  ArrayList<AssetRequest<?>> assetRequests = new ArrayList<>();
+  int intAssetsLoaded = 0;
+  volatile int intAtlasSteps = 0; // decode stages of the sprite atlas, known once its loader has checked if it is stale
+  volatile int intAtlasStepsDone = 0; // only written by the loader thread packing or reading the atlas
 
-  // INITIALIZING WORDLE GAME VARIABLES
-  int intGridSizeX = 5;
-  int intGridSizeY = 6;
-  String[][] strWordList = {
-    {"HITCH", "RURAL", "CRAIC", "ERGOT", "OUIJA"},
-    {"CREST", "SCHWA", "GLITZ", "ZEBEC", "PSYCH"},
-    {"LYMPH", "WALTZ", "XYLEM", "GLYPH", "NYMPH"}
+  // INITIALIZING LAYER CACHE VARIABLES
+  PGraphics backgroundLayer, popupLayer;
+  int intCachedScreen = -1;
+  boolean isCachedPopup, isCachedVictory, isCachedElevatorOpen;
+  int intCachedHighScoreVersion = -1;
+  int intCachedCameraX, intCachedCameraY;
+
+  // INITIALIZING TEXT RUN CACHE VARIABLES
+  PGraphics textScratch;
+  int intTextScratchHeight = 120;
+  int intTextRunPadding = 2;
+  int intMaxTextRuns = 128; // the least recently drawn runs are dropped past this, so the clock cannot grow the cache forever
+  LinkedHashMap<String, TextRun> textRuns = new LinkedHashMap<String, TextRun>(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<String, TextRun> eldest) {
+      return size() > intMaxTextRuns;
+    }
   };
-  String strTargetWord;
-  String[] strGuesses;
-  int intCurrentRow;
-  boolean isGameOver;
-  boolean isGameVictory = false;
-  int intWordleDifficulty = 0;
 
-  // INITIALIZING CONNECTIONS GAME VARIABLES
-  String[][] strIncorrectGroups;
-  String[][] strCorrectGroups;
+  // INITIALIZING DIRTY RECTANGLE VARIABLES
+  boolean isDirtyRectMode = true; // set to false to always repaint the whole screen
+  boolean isPartialRepaint = false;
+  boolean wasPartialEligible = false;
+  int intLastFrameScreen = -1;
+  int intMaxDirtyRects = 16;
+  int[] intDirtyRects = new int[intMaxDirtyRects * 4]; // x, y, w, h of every moving element drawn this frame
+  int[] intPrevDirtyRects = new int[intMaxDirtyRects * 4]; // x, y, w, h of every moving element drawn last frame
+  int intDirtyCount = 0;
+  int intPrevDirtyCount = 0;
 
-  ArrayList<String> selectedWords = new ArrayList<>();
-  boolean[][] selectedBoxes = new boolean[4][4];
-  boolean[][] solvedGroups = new boolean[4][4];
-  String strMessage = "";
-  int intLives = 4;
+  // INITIALIZING BROKEN BRIDGE GAME VARIABLES
+  SpriteRegion woodenPlank;
 
   // INITIALIZING PLAYER CHARACTER GENERATION VARIABLES
-  int intPlayerX, intPlayerY;
-  
-  boolean isUpPressed = false;
-  boolean isDownPressed = false;
-  boolean isLeftPressed = false;
-  boolean isRightPressed = false;
-  
-  PImage playerForward, playerBackward, playerLeft, playerRight;
-  PImage currentPlayerState;
+  SpriteRegion playerForward, playerBackward, playerLeft, playerRight;
+  SpriteRegion[] playerFacings; // indexed by the direction the player is facing in GameCore
 
   // INITIALIZING EXCLAMATION MARK VARIABLES
-  PImage exclamationMark;
-  int intExclamationX, intExclamationY;
+  SpriteRegion exclamationMark;
+
+  // INITIALIZING WORDLE VARIABLES
+  int[] intMarkColours = {0xFFFF0000, 0xFFFFFF00, 0xFF00FF00}; // red, yellow and green, indexed by GameCore's MARK_ constants
+
+  // INITIALIZING SPRITE ATLAS VARIABLES
+  // Sprites packed into the atlas: name, source image, width and height inside the atlas
+  String[][] strAtlasSprites = {
+    {"playerForward", "images/NerdFace.png", "50", "80"},
+    {"playerBackward", "images/NerdFaceBack.png", "50", "80"},
+    {"playerLeft", "images/NerdFaceLeft.png", "50", "80"},
+    {"playerRight", "images/NerdFaceRight.png", "50", "80"},
+    {"woodenPlank", "images/WoodenPlank.png", "80", "116"},
+    {"exclamationMark", "images/exclamation_mark.png", "55", "55"}
+  };
+  String strAtlasImagePath = "images/SpriteAtlas.png";
+  String strAtlasIndexPath = "images/SpriteAtlas.txt";
+  int intAtlasWidth = 256;
+  PImage spriteAtlas;
   int intExclamationW = 30;
   int intExclamationH = 50;
-  float fltExclamAlpha;
-  float fltFadeSpeed = 5f;
-
-  // INITIALIZING ELAVATOR MARK VARIABLES
-  float fltElevatorAlpha = 0f;
-  boolean isElevatorOpen;
+  int intExclamRampSteps = 52; // pre-faded copies from transparent to opaque
+  PImage[] exclamRamp;
 
-  // INITIALIZING DESK VARIABLES
-  int intDeskX = 315; // X position of the hitbox
-  int intDeskY = 230; // Y position of the hitbox
-  int intDeskWidth = 175; // Width of the hitbox
-  int intDeskHeight = 135; // Height of the hitbox
-  boolean isCollidingDesk;
+  // INITIALIZING FADE TRANSITION VARIABLES
+  int[] fadeSource; // snapshot of the screen taken when a fade starts
+  PImage fadeFrame; // reused for every frame of every fade
+  int intFadeScreen = -1; // screen the fade snapshot was taken on, or -1 if the next fade needs a fresh one
+  int intFadeRowsPerTask = 32;
 
-  // INITIALIZING IN-GAME CLOCK VARIABLES
-  int intStartTime;
-  String strTime = "";
+  // INITIALIZING IDLE VARIABLES
+  int intIdleDelayMillis = 500; // how long after the last input before a still screen stops redrawing
+  int intLastInputTime = 0;
+  ScheduledExecutorService idleClock;
 
-  // HIGHSCORE VARIABLES
-  ArrayList<String> strHighScores = new ArrayList<>();
-  ArrayList<Integer> intHighScoreDifficulty = new ArrayList<>();
-  boolean[] isBestInCategory = new boolean[5];
+  // INITIALIZING SAVE AND RESUME VARIABLES
+  String strSnapshotPath = "saves/resume.nyts";
+  int intSnapshotIntervalMillis = 5000; // a snapshot is also taken on every screen change
+  int intLastSnapshotTime = 0;
+  int intSnapshotScreen = -1;
+  ExecutorService snapshotWriter;
 
   public void settings() {
     // size of screen
@@ -167,485 +607,467 @@ public class Sketch extends PApplet {
   }
 
   public void setup() {
-    // initializing UI buttons
+    frameRate(intRenderRate);
+    // initializing the game rules, timed by the real clock and fed by the key and mouse handlers through the input queue
+    inputQueue = new InputQueue(intInputQueueSize);
+    lngSessionSeed = System.nanoTime();
+    game = new GameCore(this::millis, new Random(lngSessionSeed), inputQueue);
+    resumeSnapshot();
+    // records every input the game applies so the session can be replayed with InputReplay
+    // a run resumed partway through did not start from the seed, so it cannot be replayed and is not recorded
+    if (game.intScreenNumber == 0) {
+      recorder = new InputRecorder(lngSessionSeed);
+      game.recorder = recorder;
+    }
+    game.applyEvent(GameCore.EVENT_START_ENABLED, 0, 0);
+    fltTickSeconds = 1f / game.intTickRate;
+
+    // initializing UI buttons over the game's hitboxes
     textSize(26);
-    startButton = new Button(width / 2 - 80, height / 2 - 60, 200, 50, "Start Game");
-    difficultyButton = new Button(width / 2 - 102, 360, 240, 50, "Change Difficulty");
-    highscoreButton = new Button(width / 2 - 102, 300, 240, 50, "Highscores");
-    gameButton = new Button(width / 2 - 100, height / 2 + 90, 200, 50, "Play");
-    infoButton = new Button(width - 100, 10, 80, 50, "INFO");
-    backButton = new Button(630, height / 2 + 184, 100, 50, "Back");
-    playAgainButton = new Button(width / 2 - 120, height / 2 + 130, 200, 60, "Play Again!");
+    startButton = new Button(game.startHitbox, "Start Game");
+    difficultyButton = new Button(game.difficultyHitbox, "Change Difficulty");
+    highscoreButton = new Button(game.highscoreHitbox, "Highscores");
+    gameButton = new Button(game.gameHitbox, "Play");
+    infoButton = new Button(game.infoHitbox, "INFO");
+    backButton = new Button(game.backHitbox, "Back");
+    playAgainButton = new Button(game.playAgainHitbox, "Play Again!");
 
-    // initializing player images
-    playerForward = loadImage("images/NerdFace.png"); 
-    playerBackward = loadImage("images/NerdFaceBack.png"); 
-    playerLeft = loadImage("images/NerdFaceLeft.png"); 
-    playerRight = loadImage("images/NerdFaceRight.png"); 
-    
-    // initializing background images
-    setting0 = loadImage("images/IntroScreen.png");
-    setting1 = loadImage("images/BossRoom.png");
-    setting2 = loadImage("images/PlankWalk.png");
-    setting3 = loadImage("images/TopFloor.png");
-    setting4_1 = loadImage("images/Floor2Closed.png");
-    setting4_2 = loadImage("images/Floor2Open.png");
-    setting5_1 = loadImage("images/Floor1Closed.png");
-    setting5_2 = loadImage("images/Floor1Open.png");
-    setting6 = loadImage("images/GroundFloor.png");
-    setting7 = loadImage("images/OutroScreen.png");
+    // initializing one screen object per intScreenNumber
+    screens = new Screen[] {
+      new IntroScreen(), // 0
+      new Setting1Screen(), // 1
+      new Game1Screen(), // 2
+      new Transfer1Screen(), // 3
+      new DeskSettingScreen(), // 4
+      new Game2Screen(), // 5
+      new DeskSettingScreen(), // 6
+      new Game3Screen(), // 7
+      new Transfer2Screen(), // 8
+      new EndingScreen() // 9
+    };
 
-    // initializing exclamation mark image
-    exclamationMark = loadImage("images/exclamation_mark.png"); 
-    exclamationMark.resize(55, 55);
+    // initializing offscreen layers for the static parts of each screen
+    backgroundLayer = createGraphics(width, height);
+    popupLayer = createGraphics(width, height);
+    textScratch = createGraphics(width, intTextScratchHeight);
+    fadeSource = new int[width * height];
+    fadeFrame = createImage(width, height, RGB);
 
-    // Initializes and randomizes connection game answers
-    if (random(1) < 0.5) {
-      strIncorrectGroups = new String[][] {
-        {"TAPE", "GOOD", "RIVET", "PETALS"},
-        {"PLEATS", "FILM", "ENGROSS", "WOMAN"},
-        {"RECORD", "STAPLE", "SHOOT", "PENNY"},
-        {"HOLD", "ABSORB", "PLEASE", "PASTEL"}
-      };
-    
-      strCorrectGroups = new String[][] {
-        {"ABSORB", "ENGROSS", "HOLD", "RIVET", "Grab one’s attention (EASY)"},
-        {"FILM", "RECORD", "SHOOT", "TAPE", "Document with video (MODERATE)"},
-        {"PASTEL", "PETALS", "PLEATS", "STAPLE", "Anagrams (HARD)"},
-        {"GOOD", "PENNY", "PLEASE", "WOMAN", "Pretty ____ (EXTREMELY HARD)"}
-      };
-  } else {
-      strIncorrectGroups = new String[][] {
-          {"SICK", "KIND", "DRIFT", "TENDER"},
-          {"STYLE", "RING", "NICE", "SWEET"},
-          {"POINT", "SORT", "COOL", "WING"},
-          {"MESSAGE", "TYPE", "STICK", "IDEA"}
-      };
-      strCorrectGroups = new String[][] {
-          {"COOL", "NICE", "SICK", "SWEET", "Awesome! (EASY)"},
-          {"KIND", "SORT", "STYLE", "TYPE", "Variety (MODERATE)"},
-          {"DRIFT", "IDEA", "MESSAGE", "POINT", "Gist (HARD)"},
-          {"RING", "STICK", "TENDER", "WING", "Fried Appetizer: Informally (EXTREMELY HARD)"}
-      };
-    }
-    // initializing wooden plank image
-    woodenPlank = loadImage("images/WoodenPlank.png");
-    
-    // Initializing filler values for highscore
-    strHighScores.add("00h:00m:20s");
-    strHighScores.add("00h:00m:50s");
-    strHighScores.add("00h:00m:50s");
-    strHighScores.add("00h:01m:20s");
-    strHighScores.add("00h:02m:15s");
-    intHighScoreDifficulty.add(0);
-    intHighScoreDifficulty.add(0);
-    intHighScoreDifficulty.add(1);
-    intHighScoreDifficulty.add(2);
-    intHighScoreDifficulty.add(2);
+    // wakes idle screens once a second so their clock keeps ticking
+    idleClock = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "idle-clock");
+      thread.setDaemon(true);
+      return thread;
+    });
 
-    for (int i = 0; i < 5; i++){
-      intHighScoreDifficulty.add(-1);
-      isBestInCategory[i] = false;
+    // decodes images in parallel on daemon threads, which keep running to prefetch backgrounds during the game
+    assetLoader = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+      Thread thread = new Thread(task, "asset-loader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // only the backgrounds around the current screen are decoded; the intro screen comes first so it can be shown right away
+    backgrounds = new BackgroundCache(strBackgroundPaths, intBackgroundBudgetMB * 1024L * 1024L);
+    backgrounds.prefetch(0);
+    // floors cut into chunks are streamed around the camera instead of being decoded whole
+    backgroundChunks = new ChunkCache[strBackgroundPaths.length];
+    for (int i = 0; i < strBackgroundPaths.length; i++) {
+      try {
+        FloorChunks floor = FloorChunks.load(new File(sketchPath()), strBackgroundPaths[i]);
+        if (floor != null) {
+          backgroundChunks[i] = new ChunkCache(floor);
+        }
+      }
+      catch (IOException e) {
+        println("Could not read chunked floor: " + e.getMessage());
+      }
     }
+
+    // initializing player, plank and exclamation mark images from one packed atlas
+    requestTask(this::loadSpriteAtlas, this::applySpriteAtlas);
   }
   
   public void draw() {
-    background(50);
-    // HOME SCREEN
-    if (intScreenNumber == 0) {
-      textSize(26);
-      introScreen();
-    } 
-    // SETTING 1 SCREEN
-    else if (intScreenNumber == 1) {
-      settingScreen1();
-    } 
-    // GAME 1 SCENE
-    else if (intScreenNumber == 2) {
-      gameScreen1();
-    } 
-    // TRANSFER 1 SCREEN
-    else if (intScreenNumber == 3) {
-      transferScreen1();
-    } 
-    // SETTING 2 SCREEN
-    else if (intScreenNumber == 4) {
-      settingScreen2();
-    } 
-    // GAME 2 SCREEN
-    else if (intScreenNumber == 5) {
-      gameScreen2();
-    } 
-    // SETTING 3 SCREEN
-    else if (intScreenNumber == 6) {
-      settingScreen3();
-    } 
-    // GAME 3 SCREEN
-    else if (intScreenNumber == 7) {
-      gameScreen3();
-    } 
-    // TRANSFER 2 SCREEN
-    else if (intScreenNumber == 8) {
-      transferScreen2();
-    } 
-    // END SCREEN
-    else if (intScreenNumber == 9) {
-      endingScreen();
-    } 
-    // ELAPSED TIME CLOCK
-    if (intScreenNumber != 0 && intScreenNumber != 9){
-      displayElapsedTime();
+    // assigns any images that have finished decoding
+    pollAssets();
+    // shows a loading splash until the intro screen can be drawn, or until every image is loaded when a run was resumed past it
+    if ((game.intScreenNumber == 0 && !backgrounds.isResident(0)) || (game.intScreenNumber != 0 && !isAssetsLoaded())) {
+      drawLoadingSplash();
+      return;
     }
+    // Seconds since the last frame, limited so a long idle pause does not count as one huge step
+    int intNow = millis();
+    fltTickAccumulator += min((intNow - intLastFrameTime) / 1000f, 0.25f);
+    intLastFrameTime = intNow;
+
+    // UPDATE PHASE: game logic only, nothing is drawn
+    // runs as many fixed ticks as real time has passed, so the game plays at the same speed at any frame rate
+    long lngUpdateStart = System.nanoTime();
+    int intTicks = 0;
+    // the start button is held until the images are loaded; passed in as an event so replays hold it for the same ticks
+    if (game.isStartEnabled != isAssetsLoaded()) {
+      game.applyEvent(GameCore.EVENT_START_ENABLED, isAssetsLoaded() ? 1 : 0, 0);
+    }
+    while (fltTickAccumulator >= fltTickSeconds && intTicks < intMaxTicksPerFrame) {
+      game.tick();
+      fltTickAccumulator -= fltTickSeconds;
+      intTicks++;
+    }
+    // drops the time this machine could not catch up on instead of spiralling further behind
+    if (intTicks == intMaxTicksPerFrame) {
+      fltTickAccumulator = 0;
+    }
+    // keeps the backgrounds of this screen and the screens after it decoded
+    updateCamera();
+    retainBackgrounds();
+
+    // RENDER PHASE: drawing only, no game state changes
+    long lngRenderStart = System.nanoTime();
+    renderGame();
+    recordPhaseTimes(lngRenderStart - lngUpdateStart, System.nanoTime() - lngRenderStart);
+
+    // stops redrawing if nothing on the screen can change without input
+    checkIdle();
+    // saves the run so it can be resumed if the app is closed
+    checkSnapshot();
   }
-  // ----------------INTRO SCREEN------------------------
   /**
-   * Displays the start home screen
+   * Draws the current screen and the in-game clock
    */
-  public void introScreen(){
-    // Displays intro screen
-    image(setting0, 0, 0);
-    
-    // start game button
-    startButton.isOver = startButton.isOver();
-    startButton.display();
-    
-    // difficulty toggle button
-    difficultyButton.isOver = difficultyButton.isOver();
-    difficultyButton.display();
-    // highscore button
-    highscoreButton.isOver = highscoreButton.isOver();
-    highscoreButton.display();
-    // shows highscore screen
-    if (showPopup) {
-      drawPopup();
+  public void renderGame() {
+    // repaints only the moving parts of floor screens when nothing else on the screen has changed
+    beginDirtyFrame();
+    if (!isPartialRepaint) {
+      background(50);
+    }
+    screens[game.intScreenNumber].render();
+    // ELAPSED TIME CLOCK
+    if (game.intScreenNumber != 0 && game.intScreenNumber != 9){
+      displayElapsedTime();
     }
   }
-  // ----------------GAME SCREENS------------------------
   /**
-   * Displays Game 1 Screen (Broken Bridge)
+   * Adds the time spent in each phase of the frame to the running totals, printing the averages every few seconds when profiling
+   * 
+   * @param lngUpdateNanos Nanoseconds spent in the update phase this frame
+   * @param lngRenderNanos Nanoseconds spent in the render phase this frame
    */
-  public void gameScreen1() {
-    image(setting2, 0, 0);
-
-    if (isPlank1Show == true){
-      image(woodenPlank, 455, 401);
-    }
-    if (isPlank2Show == true){
-      image(woodenPlank,455, 221);
+  public void recordPhaseTimes(long lngUpdateNanos, long lngRenderNanos) {
+    lngTotalUpdateNanos += lngUpdateNanos;
+    lngTotalRenderNanos += lngRenderNanos;
+    intProfiledFrames++;
+    if (isProfiling && intProfiledFrames == intProfileWindow) {
+      println("update " + nf(lngTotalUpdateNanos / 1000f / intProfiledFrames, 0, 1) + " us, render " + nf(lngTotalRenderNanos / 1000f / intProfiledFrames, 0, 1) + " us per frame");
+      if (inputQueue.intDrained > 0) {
+        println("input waited " + nf((float) inputQueue.lngTotalDelayMillis / inputQueue.intDrained, 0, 1) + " ms for a tick on average, " + inputQueue.intDropped + " dropped");
+      }
+      lngTotalUpdateNanos = 0;
+      lngTotalRenderNanos = 0;
+      intProfiledFrames = 0;
     }
-    if (isPlank3Show == true){
-      image(woodenPlank, 278, 43);
+    else if (intProfiledFrames == intProfileWindow) {
+      lngTotalUpdateNanos = 0;
+      lngTotalRenderNanos = 0;
+      intProfiledFrames = 0;
     }
-    playerMovementPlankWalk();
-    // extra info button
-    infoButton.isOver = infoButton.isOver();
-    infoButton.display();
-    if (showPopup) {
-      drawPopup();
+  }
+  // ----------------SCREEN REGISTRY------------------------
+  // This class is the base of the drawing of every screen; draw() looks the current one up by intScreenNumber, and the rules live in GameCore
+  abstract class Screen {
+    /**
+     * Draws the screen without changing any game state
+     */
+    abstract void render();
+    /**
+     * Gives the lines of the screen's information pop-up
+     * 
+     * @return the lines of the pop-up, or an empty array if the screen has none
+     */
+    String[] popupText() {
+      return new String[0];
     }
+  }
 
-    if (isScreenFaded){
-      resetSetting();
+  // ----------------INTRO SCREEN------------------------
+  // Displays the start home screen
+  class IntroScreen extends Screen {
+    void render() {
+      textSize(26);
+      // Displays intro screen
+      drawBackgroundLayer();
+      
+      // start game button
+      startButton.isOver = startButton.isOver();
+      startButton.display();
+      
+      // difficulty toggle button
+      difficultyButton.isOver = difficultyButton.isOver();
+      difficultyButton.display();
+      // highscore button
+      highscoreButton.isOver = highscoreButton.isOver();
+      highscoreButton.display();
+      // shows loading progress while the rest of the game's images are decoding
+      if (!isAssetsLoaded()) {
+        drawLoadingBar(height - 40);
+      }
+      // shows highscore screen
+      if (game.showPopup) {
+        drawPopup();
+      }
     }
-    // Plays scene change animation when player is in contact with skybridge door
-    if (intPlayerY <= 50) {
-      intScreenNumber = 3; // Transfer 1
-      resetSetting();
-    } 
   }
-  /**
-   * Displays Game 2 Screen (WORDLE)
-   */
-  public void gameScreen2() {
-    // background colour
-    background(210, 255, 173);
-
-    // draws wordle guesses, boxes, colours
-    drawWordleGrid();
-
-    // extra info button
-    infoButton.isOver = infoButton.isOver();
-    infoButton.display();
+  // ----------------GAME SCREENS------------------------
+  // Displays Game 1 Screen (Broken Bridge)
+  class Game1Screen extends Screen {
+    void render() {
+      drawBackgroundLayer();
 
-    // Shows win or lose pop-up after game finishes
-    if (isGameOver && !isGameVictory) {
-      showLosePopup = true;
-    }
-    if (isGameOver && isGameVictory) {
-      showWinPopup = true;
-    }
-    if (showWinPopup) {
-      drawWinPopup();
-    }
-    if (showLosePopup) {
-      drawLosePopup();
-      textSize(24);
-      fill(255);
-      textAlign(CENTER);
-      text("The word was: " + strTargetWord, width / 2, height / 2 + 50);
+      if (game.isPlank1Show == true){
+        drawSprite(woodenPlank, 455, 401);
+      }
+      if (game.isPlank2Show == true){
+        drawSprite(woodenPlank, 455, 221);
+      }
+      if (game.isPlank3Show == true){
+        drawSprite(woodenPlank, 278, 43);
+      }
+      // the player drops out of view while the screen fades after falling
+      if (game.fltFallingAlpha == 0){
+        drawPlayer();
+      }
+      drawFade(game.fltFallingAlpha);
+      // extra info button
+      drawInfoButton();
+      if (game.showPopup) {
+        drawPopup();
+      }
     }
-    // Extra info pop-up
-    if (showPopup && !showWinPopup && !showLosePopup) {
-      drawPopup();
+    String[] popupText() {
+      return new String[] {
+        "Introducing the skybridge...",
+        "Well the soon to be skybridge, for now it's more ",
+        "like a broken bridge.",
+        "In this first puzzle, there are 3 pairs of wooden planks",
+        "placed next to each ther. ",
+        "In each pair of wooden planks, one is safe",
+        "while the other plunges you to your death sending you back",
+        "to the start of the bridge."
+      };
     }
-    // Title of Mini-game
-    textSize(70);
-    fill(0);
-    textAlign(CENTER);
-    text("WORDLE", width / 2, 70);
   }
+  // Displays Game 2 Screen (WORDLE)
+  class Game2Screen extends Screen {
+    void render() {
+      // background colour
+      drawBackgroundLayer();
 
-  /**
-   * Displays Game 3 Screen (Connections)
-   */
+      // draws wordle guesses, boxes, colours
+      drawWordleGrid();
 
-  public void gameScreen3() {
-    background(255, 210, 173);
-    ConnectionsGameScreen();
-    
-    infoButton.isOver = infoButton.isOver();
-    infoButton.display();
-    if (isGameOver && !isGameVictory) {
-      showLosePopup = true;
-    }
-    if (isGameOver && isGameVictory) {
-      showWinPopup = true;
-    }
-    if (showPopup && !showWinPopup && !showLosePopup) {
-      drawPopup();
+      // extra info button
+      drawInfoButton();
+
+      if (game.showWinPopup) {
+        drawWinPopup();
+      }
+      if (game.showLosePopup) {
+        drawLosePopup();
+        textSize(24);
+        fill(255);
+        textAlign(CENTER);
+        drawTextRun("The word was: " + game.strTargetWord, width / 2, height / 2 + 50);
+      }
+      // Extra info pop-up
+      if (game.showPopup && !game.showWinPopup && !game.showLosePopup) {
+        drawPopup();
+      }
+      // Title of Mini-game
+      textSize(70);
+      fill(0);
+      textAlign(CENTER);
+      drawTextRun("WORDLE", width / 2, 70);
+    }
+    String[] popupText() {
+      return new String[] {
+        "This is the ORIGINAL Wordle game by the ",
+        "New York Times.",
+        "To play, enter 5 letter combinations and ",
+        "press enter to check if your guess is the ",
+        "target 5 letter word. ",
+        "Red means the letter is not in the correct word.",
+        "Yellow means the letter is in the correct word, ",
+        "but not in the correct position.",
+        "Green means the letter is in the correct word ",
+        "and is in the correct position."
+      };
     }
-    if (showWinPopup) {
-      drawWinPopup();
+  }
+  // Displays Game 3 Screen (Connections)
+  class Game3Screen extends Screen {
+    void render() {
+      ConnectionsGameScreen();
+      
+      drawInfoButton();
+      if (game.showPopup && !game.showWinPopup && !game.showLosePopup) {
+        drawPopup();
+      }
+      if (game.showWinPopup) {
+        drawWinPopup();
+      }
+      if (game.showLosePopup) {
+        drawLosePopup();
+      }
     }
-    if (showLosePopup) {
-      drawLosePopup();
+    String[] popupText() {
+      return new String[] {
+        "This is Connections, the classic puzzle game by the",
+        "New York Times.",
+        "To play, you will need to sort all 16 tiles into ",
+        "four groups of four such that the words in each group",
+        "belong to a specific category.",
+        "Press ENTER to guess. A wrong guess will lose a life.",
+        "When a group is found, the category is revealed",
+        "and the words will no longer be selectable.",
+        "The categories range from easy to extremely hard.",
+        "The game is won once all four groups are found."
+      };
     }
-  }  
+  }
   // ----------------SETTING SCREENS------------------------
-  /**
-   * Displays setting 1 screen (BOSS office)
-   */
-  public void settingScreen1() {
-    // Setting1 background generation
-    image(setting1, 0, 0);
-    // player movement is called here
-    playerMovement();
+  // Displays setting 1 screen (BOSS office)
+  class Setting1Screen extends Screen {
+    void render() {
+      // Setting1 background generation
+      drawBackgroundLayer();
+      drawPlayer();
 
-    // extra info button
-    infoButton.isOver = infoButton.isOver();
-    infoButton.display();
-    // extra info pop-up
-    if (showPopup) {
-      drawPopup();
+      // extra info button
+      drawInfoButton();
+      // extra info pop-up
+      if (game.showPopup) {
+        drawPopup();
+      }
+      drawFade(game.fltElevatorAlpha);
     }
-    // Plays scene change animation when player is in contact with skybridge door
-    if (intPlayerY <= 50 && intPlayerX < (width / 2) + 60 && intPlayerX > (width / 2) - 60) {
-      isElevatorOpen = true;
-      fadeOutElevator();
-    } 
-    if (isScreenFaded){
-      resetSetting();
-      intScreenNumber = 2; // GAME 1
+    String[] popupText() {
+      return new String[] {"Make your way to the shattered windows to ", "escape the boss's office"};
     }
   }
-  /**
-   * Displays setting 2 screen (Floor 2 office)
-   */
-  public void settingScreen2() {
-    // Setting 2 background generation + exclamation mark generation
-    intExclamationX = 440;
-    intExclamationY = 280;
-    // Open elevator after player wins game, close elevator before player wins game
-    // player movement is called here
-    if (isGameVictory){
-      image(setting4_2, 0, 0);
-      playerMovement();
-      isElevatorOpen = true;
-    }
-    if (!isGameVictory){
-      image(setting4_1, 0, 0);
-      playerMovement();
-      displayExclamMark(intExclamationX, intExclamationY);
-    }
-    // extra info button
-    infoButton.isOver = infoButton.isOver();
-    infoButton.display();
-    // extra info pop-up
-    if (showPopup && !isSwitchButtonDisplayed) {
-      drawPopup();
-    }
-    // Takes player to game on collision with desk
-    if (isCollidingDesk && !isGameVictory){
-      isSwitchButtonDisplayed = true;
-      drawGameInfoPopup();
-    }
-    // Scene animation to next scene upon colliding with open elevator
-    if (isCollidingElevator() && isGameVictory){
-      fadeOutElevator();
+  // Displays setting 2 and 3 screens (Floor 2 and floor 1 offices), where the desk leads to a puzzle that unlocks the elevator
+  class DeskSettingScreen extends Screen {
+    void render() {
+      // background generation + exclamation mark generation
+      drawBackgroundLayer();
+      drawPlayer();
+      if (!game.isGameVictory){
+        displayExclamMark(game.intExclamationX - intCameraX, game.intExclamationY - intCameraY);
+      }
+      // extra info button
+      drawInfoButton();
+      // extra info pop-up
+      if (game.showPopup && !game.isSwitchButtonDisplayed) {
+        drawPopup();
+      }
+      // Shows the game preamble on collision with desk
+      if (game.isCollidingDesk && !game.isGameVictory){
+        drawGameInfoPopup();
+      }
+      drawFade(game.fltElevatorAlpha);
     }
-    if (isScreenFaded){
-      intScreenNumber = 6;
-      resetSetting();
+    String[] popupText() {
+      if (game.isGameVictory){
+        return new String[] {"GO TO THE ELEVATOR TO ESCAPE THE BUILDING"};
+      }
+      return new String[] {"The desk seems to have something on it..."};
     }
-    
   }
-
-  /**
-   * Displays setting 3 screen (floor 1 office)
-   */
-  public void settingScreen3() {
-    
-    // Setting 3 background generation + exclamation mark generation
-    intExclamationX = 440;
-    intExclamationY = 280;
-    // Open elevator after player wins game, close elevator before player wins game
-    // player movement is called here
-    if (isGameVictory){
-      image(setting5_2, 0, 0);
-      playerMovement();
-      isElevatorOpen = true;
-    }
-    if (!isGameVictory){
-      image(setting5_1, 0, 0);
-      playerMovement();
-      displayExclamMark(intExclamationX, intExclamationY);
-    }
-    // extra info button
-    infoButton.isOver = infoButton.isOver();
-    infoButton.display();
-    // extra info pop-up
-    if (showPopup && !isSwitchButtonDisplayed) {
-      drawPopup();
-    }
-    // Takes player to game on collision with desk
-    if (isCollidingDesk && !isGameVictory){
-      isSwitchButtonDisplayed = true;
-      drawGameInfoPopup();
-    }
-    // Scene animation to next scene upon colliding with open elevator
-    if (isCollidingElevator() && isGameVictory){
-      fadeOutElevator();
+  // ----------------TRANSFER SCREENS------------------------
+  // Displays transfer 1 screen (top floor office)
+  class Transfer1Screen extends Screen {
+    void render() {
+      // Transfer 1 background generation
+      drawBackgroundLayer();
+      drawPlayer();
+      // extra info button
+      drawInfoButton();
+      // extra info pop-up
+      if (game.showPopup) {
+        drawPopup();
+      }
+      drawFade(game.fltElevatorAlpha);
     }
-    if (isScreenFaded){
-      intScreenNumber = 8;
-      resetSetting();
+    String[] popupText() {
+      return new String[] {"GO TO THE ELEVATOR TO ESCAPE THE BUILDING"};
     }
-    
   }
-  /**
-   * Resets player to initial position on the setting screen upon switching of setting screens
-   */
-  public void resetSetting(){
-    // Initializing starting player character position for specific scenes
-    if (intScreenNumber == 1 || intScreenNumber == 2 || intScreenNumber == 3){
-      intPlayerX = 380;
-      intPlayerY = 520;
-    }
-    if (intScreenNumber == 4 || intScreenNumber == 6 || intScreenNumber == 8){
-      intPlayerX = 400;
-      intPlayerY = 50;
-    }
-    // initializing variables
-    currentPlayerState = playerForward;
-    fltExclamAlpha = 0;
-    fltElevatorAlpha = 0;
-    fltFallingAlpha = 0;
-    isSwitchButtonDisplayed = false;
-    isScreenFaded = false;
-    isGameVictory = false;
-    isGameOver = false;
-    isElevatorOpen = false;
-  }
-  // ----------------TRANSFER SCREENS------------------------
-  /**
-   * Displays transfer 1 screen (top floor office)
-   */
-  public void transferScreen1() {
-    // Opens elevator as there is no game
-    isElevatorOpen = true;
-    // Transfer 1 background generation
-    image(setting3, 0, 0);
-    // player movement is called here
-    playerMovement();
-    // extra info button
-    infoButton.isOver = infoButton.isOver();
-    infoButton.display();
-    // extra info pop-up
-    if (showPopup) {
-      drawPopup();
+  // Displays transfer 2 screen (ground floor office)
+  class Transfer2Screen extends Screen {
+    void render() {
+      // Transfer 2 background generation
+      drawBackgroundLayer();
+      // extra info button
+      drawInfoButton();
+      // extra info pop-up
+      if (game.showPopup) {
+        drawPopup();
+      }
+      // the player disappears through the exit while the screen fades
+      if (game.fltElevatorAlpha > 0) {
+        drawFade(game.fltElevatorAlpha);
+      } 
+      else{
+        drawPlayer();
+      }
     }
-    // Scene animation to next scene upon colliding with open elevator
-    if (isCollidingElevator()){
-      fadeOutElevator();
-      
+    String[] popupText() {
+      return new String[] {"GO TO THE EXIT!!!"};
     }
-    if (isScreenFaded){
-      intScreenNumber = 4;
-      resetSetting();
+  }
+  // --------------------------ENDING SCREEN----------------------------
+  // Displays the end screen of the game 
+  class EndingScreen extends Screen {
+    void render() {
+      // Writing ending text
+      drawBackgroundLayer();
+      fill(0);
+      textAlign(CENTER);
+      textSize(32);
+      drawTextRun(game.strTime, 450, 110);
+      // Play Again button
+      playAgainButton.isOver = playAgainButton.isOver();
+      playAgainButton.display();
     }
   }
   /**
-   * Displays transfer 2 screen (ground floor office)
+   * Displays the extra info button and updates its hover colour
    */
-  public void transferScreen2() {
-    // Transfer 2 background generation
-    image(setting6, 0, 0);
-    // extra info button
+  public void drawInfoButton(){
     infoButton.isOver = infoButton.isOver();
     infoButton.display();
-    // extra info pop-up
-    if (showPopup) {
-      drawPopup();
-    }
-    // Scene animation to next scene upon colliding with open elevator; player will also disappear 
-    if (intPlayerY >= 500 && intPlayerX < (width / 2) + 40 && intPlayerX > (width / 2) - 40) {
-      isElevatorOpen = true;
-      fadeOutElevator();
-    } 
-    else{
-      // player movement is called here
-      playerMovement();
-    }
-    // Changes scene when animation is finished playing
-    if (isScreenFaded){
-      intScreenNumber = 9;
-      resetSetting();      
-    }
   }
-  // --------------------------ENDING SCREEN----------------------------
+  // ----------------POP-UP SCREENS------------------------
+
   /**
-   * Displays the end screen of the game 
+   * Draws a popup window with scene-specific information to help guide the player
    */
-  public void endingScreen() {
-    // Writing ending text
-    image(setting7, 0, 0);
-    fill(0);
+  public void drawPopup() {
+    // draws the cached padding rectangle and popup text
+    drawPopupLayer();
+    // restores the text formatting that the popup text leaves behind
+    fill(255);
     textAlign(CENTER);
-    textSize(32);
-    text(strTime, 450, 110);
-    // Play Again button
-    playAgainButton.isOver = playAgainButton.isOver();
-    playAgainButton.display();
+    textSize(24);
+    // displays back button to exit information pop-up
+    backButton.isOver = backButton.isOver();
+    backButton.display();
   }
-  // ----------------POP-UP SCREENS------------------------
-
   /**
-   * Draws a popup window with scene-specific information to help guide the player
+   * Draws the static padding rectangle and scene-specific text of the information popup
+   * Only called when the popup layer is re-rendered, not every frame
    */
-   public void drawPopup() {
-    if (intScreenNumber > 0){
-      // draws padding rectangle
-      fill(0, 0, 0, 150);
-      rect(50, 50, width - 100, height - 100);
-      // displays title of pop-up screen
-      fill(255);
-      textAlign(CENTER);
-      textSize(24);
-      text("Information Popup", width / 2, 100);
-    }
-    
+  public void drawPopupPanel() {
     // Intro Screen
-    if (intScreenNumber == 0){
+    if (game.intScreenNumber == 0){
       // draws padding rectangle
       fill(0, 0, 0, 220);
       rect(50, 50, width - 100, height - 100);
@@ -657,256 +1079,789 @@ public class Sketch extends PApplet {
       text("DIFFICULTY", 400, 200);
       text("BEST IN", 650, 175);
       text("CATEGORY?", 650, 200);
-      for (int i = 0; i < strHighScores.size(); i++){
-        checkIfBestInCategory();
-        text(strHighScores.get(i), 150, 260 + i * 50);
-        if (intHighScoreDifficulty.get(i) == -1){
+      for (int i = 0; i < game.strHighScores.size(); i++){
+        game.checkIfBestInCategory();
+        text(game.strHighScores.get(i), 150, 260 + i * 50);
+        if (game.intHighScoreDifficulty.get(i) == -1){
           text("FILLER", 400, 260 + i * 50);
         }
-        else if (intHighScoreDifficulty.get(i) == 0){
+        else if (game.intHighScoreDifficulty.get(i) == 0){
           text("EASY", 400, 260 + i * 50);
         }
-        else if (intHighScoreDifficulty.get(i) == 1){
+        else if (game.intHighScoreDifficulty.get(i) == 1){
           text("MEDIUM", 400, 260 + i * 50);
         }
-        else if (intHighScoreDifficulty.get(i) == 2){
+        else if (game.intHighScoreDifficulty.get(i) == 2){
           text("HARD", 400, 260 + i * 50);
         }
-        if (isBestInCategory[i]){
+        if (game.isBestInCategory[i]){
           text("YES!", 650, 260 + i * 50);
         }
-        else if (!isBestInCategory[i]){
+        else if (!game.isBestInCategory[i]){
           text("NAH :(", 650, 260 + i * 50);
         }
       }
+      return;
+    }
+    // Every other screen: draws padding rectangle
+    fill(0, 0, 0, 150);
+    rect(50, 50, width - 100, height - 100);
+    // displays title of pop-up screen
+    fill(255);
+    textAlign(CENTER);
+    textSize(24);
+    text("Information Popup", width / 2, 100);
+    // short messages sit in the middle of the pop-up, longer ones start under the title
+    String[] strLines = screens[game.intScreenNumber].popupText();
+    float fltTop = strLines.length > 2 ? 160 : height / 2;
+    float fltSpacing = strLines.length > 2 ? 40 : 25;
+    for (int i = 0; i < strLines.length; i++){
+      float fltLineX = width / 2;
+      float fltLineY = fltTop + i * fltSpacing;
+      // nudges lines that would run into the back button to the left
+      if (fltLineY > backButton.fltY && width / 2 + textWidth(strLines[i]) / 2 > backButton.fltX){
+        fltLineX -= 50;
+      }
+      text(strLines[i], fltLineX, fltLineY);
+    }
+  }
+  /**
+   * Draws a popup window when the player wins.
+   */
+  public void drawWinPopup() {
+    // draws padding rectangle
+    fill(0, 0, 0, 150);
+    rect(50, 50, width - 100, height - 100);
+    // displays win text
+    fill(255);
+    textAlign(CENTER);
+    textSize(24);
+    drawTextRun("You Win!", width / 2, height / 2 - 50);
+    drawTextRun("Congratulations!", width / 2, height / 2);
+    // displays back button to escape pop-up and continue to next scene
+    backButton.isOver = backButton.isOver();
+    backButton.display();
+  }
+  /**
+   * Draws a popup window when the player loses.
+   */
+  public void drawLosePopup() {
+    // draws padding rectangle
+    fill(0, 0, 0, 150);
+    rect(50, 50, width - 100, height - 100);
+    // displays lose text
+    fill(255);
+    textAlign(CENTER);
+    textSize(24);
+    drawTextRun("You Lose!", width / 2, height / 2 - 50);
+    drawTextRun("Better luck next time!", width / 2, height / 2);
+    // displays back button to escape pop-up and play the game again
+    backButton.isOver = backButton.isOver();
+    backButton.display();
+  }
+  /** 
+   * Before entering this game, a brief preamble and a button will be displayed through this pop-up
+   * Only after clicking the button will the player be able to play the game
+   */
+  public void drawGameInfoPopup() {
+    // draws padding rectangle
+    markDirty(50, 50, width - 100, height - 100);
+    fill(0, 0, 0, 150);
+    rect(50, 50, width - 100, height - 100);
+    // displays game preamble text
+    fill(255);
+    textAlign(CENTER);
+    textSize(24);
+    if (game.intScreenNumber == 4){
+      drawTextRun("Complete the Wordle to Unlock the Elevator", width / 2, height / 2 - 50);
+      drawTextRun("Intelligence is needed to join the New York Times", width / 2, height / 2);
+      drawTextRun("Genius is needed to leave the New York Times", width / 2, height / 2 + 50);
+    }
+    else if (game.intScreenNumber == 6){
+      drawTextRun("Solve the Connections puzzle to Unlock the Elevator", width / 2, height / 2 - 50);
+      drawTextRun("'Know the enemy, know yourself;", width / 2, height / 2);
+      drawTextRun("victory will never be endangered' - Sun Tzu", width / 2, height / 2 + 50);
+    }
+    // displays start mini-game button to escape pop-up and go to the "game" screen
+    gameButton.isOver = gameButton.isOver();
+    gameButton.display();
+  }
+  // ----------------ASSET LOADING METHODS------------------------
+  /**
+   * Queues an image to be decoded on the asset loader threads
+   * 
+   * @param strPath Path of the image file
+   * @param onLoaded Assigns the decoded image to its variable once it is ready
+   */
+  public void requestAsset(String strPath, Consumer<PImage> onLoaded){
+    requestTask(() -> loadImage(strPath), onLoaded);
+  }
+  /**
+   * Queues any asset loading work on the asset loader threads
+   * 
+   * @param task Decodes the asset
+   * @param onLoaded Assigns the decoded asset to its variable once it is ready
+   */
+  public <T> void requestTask(Callable<T> task, Consumer<T> onLoaded){
+    assetRequests.add(new AssetRequest<T>(assetLoader.submit(task), onLoaded));
+  }
+  /**
+   * Assigns every image that has finished decoding to its variable
+   * Runs on the animation thread so draw() never sees a half-assigned image
+   */
+  public void pollAssets(){
+    if (isAssetsLoaded()){
+      return;
+    }
+    for (AssetRequest<?> request : assetRequests){
+      if (!request.isAssigned && request.future.isDone()){
+        try {
+          request.assign();
+        }
+        catch (InterruptedException | ExecutionException e){
+          println("Could not load image: " + e.getMessage());
+        }
+        request.isAssigned = true;
+        intAssetsLoaded++;
+      }
+    }
+  }
+  /**
+   * Checks if every queued image has been decoded and assigned
+   * 
+   * @return true if all images are loaded, false otherwise
+   */
+  public boolean isAssetsLoaded(){
+    return intAssetsLoaded == assetRequests.size();
+  }
+  /**
+   * Displays a plain loading screen while the intro screen image is decoding
+   */
+  public void drawLoadingSplash(){
+    background(50);
+    fill(255);
+    textAlign(CENTER, CENTER);
+    textSize(32);
+    text("Loading...", width / 2, height / 2 - 40);
+    drawLoadingBar(height / 2);
+  }
+  /**
+   * Displays a progress bar of the startup loading work that has finished
+   * Each stage of loading the sprite atlas is one step, and so is the intro background while the intro screen is waiting on it
+   * 
+   * @param fltY Y-coordinate of the progress bar
+   */
+  public void drawLoadingBar(float fltY){
+    // the atlas counts as one step until its loader knows how many stages it has
+    int intSteps = max(1, intAtlasSteps);
+    int intDone = isAssetsLoaded() ? intSteps : min(intAtlasStepsDone, intSteps);
+    if (game.intScreenNumber == 0){
+      intSteps++;
+      if (backgrounds.isResident(0)){
+        intDone++;
+      }
+    }
+    float fltProgress = (float) intDone / intSteps;
+    // draws the empty bar
+    noStroke();
+    fill(0, 0, 0, 150);
+    rect(width / 2 - 150, fltY, 300, 16);
+    // fills the bar with the amount loaded
+    fill(0, 102, 153);
+    rect(width / 2 - 150, fltY, 300 * fltProgress, 16);
+    stroke(0);
+  }
+  /**
+   * Pins the backgrounds of the current screen and every screen reachable from it whenever the screen changes
+   * Neighbouring backgrounds start decoding in the background so they are ready before the elevator fade finishes
+   */
+  public void retainBackgrounds(){
+    // the chunks of a chunked floor follow the camera every frame
+    for (int intId : intScreenBackgrounds[game.intScreenNumber]){
+      if (backgroundChunks[intId] != null){
+        backgroundChunks[intId].retain(intCameraX, intCameraY);
+      }
+    }
+    if (intResidentScreen == game.intScreenNumber){
+      return;
+    }
+    intResidentScreen = game.intScreenNumber;
+    // gathers the backgrounds of this screen first, then its neighbours
+    ArrayList<Integer> intKeep = new ArrayList<>();
+    for (int intId : intScreenBackgrounds[game.intScreenNumber]){
+      intKeep.add(intId);
+    }
+    for (int intNeighbour : intScreenNeighbours[game.intScreenNumber]){
+      for (int intId : intScreenBackgrounds[intNeighbour]){
+        intKeep.add(intId);
+      }
+    }
+    // chunked floors are never decoded whole, and drop their chunks once the player has left them
+    intKeep.removeIf(intId -> backgroundChunks[intId] != null);
+    for (int intId = 0; intId < backgroundChunks.length; intId++){
+      boolean isOnScreen = false;
+      for (int intScreenId : intScreenBackgrounds[game.intScreenNumber]){
+        isOnScreen |= intScreenId == intId;
+      }
+      if (backgroundChunks[intId] != null && !isOnScreen){
+        backgroundChunks[intId].clear();
+      }
+    }
+    int[] intIds = new int[intKeep.size()];
+    for (int i = 0; i < intIds.length; i++){
+      intIds[i] = intKeep.get(i);
+    }
+    backgrounds.pin(intIds);
+  }
+  // ----------------PIXEL CACHE METHODS------------------------
+  /**
+   * Loads an image from the raw pixel cache stored next to it, decoding the PNG and refreshing the cache if it is missing or stale
+   * Runs on the asset loader threads
+   * 
+   * Cache layout (big-endian): magic, version, PNG length (long), PNG last-modified time (long), PNG CRC32 (long), width, height,
+   * format, then width * height ARGB ints
+   * 
+   * @param strPath Path of the PNG file
+   * @return the loaded image
+   */
+  public PImage loadImageCached(String strPath){
+    File png = new File(sketchPath(strPath));
+    File cache = new File(sketchPath(strPath + ".argb"));
+    PImage img = readPixelCache(cache, png);
+    if (img == null){
+      img = loadImage(strPath);
+      if (img != null){
+        try {
+          writePixelCache(cache, img, png.length(), png.lastModified(), hashFile(png));
+        }
+        catch (IOException e){
+          println("Could not write pixel cache: " + e.getMessage());
+        }
+      }
+    }
+    return img;
+  }
+  /**
+   * Hashes the contents of a file so a stale pixel cache can be detected
+   * 
+   * @param file The file to hash
+   * @return the CRC32 of the file contents
+   */
+  public long hashFile(File file) throws IOException {
+    CRC32 crc = new CRC32();
+    crc.update(Files.readAllBytes(file.toPath()));
+    return crc.getValue();
+  }
+  /**
+   * Memory-maps a raw pixel cache file straight into the pixels of a new image
+   * The cache is trusted if the PNG's length and last-modified time match; the PNG is only hashed when the time has changed,
+   * and a cache whose hash still matches is stamped with the new time so the PNG is not hashed again next launch
+   * 
+   * @param cache The raw pixel cache file
+   * @param png The PNG the cache must have been made from
+   * @return the cached image, or null if the cache is missing, unreadable or made from a different PNG
+   */
+  public PImage readPixelCache(File cache, File png){
+    if (!cache.exists() || !png.exists()){
+      return null;
+    }
+    long lngLength = png.length();
+    long lngModified = png.lastModified();
+    try (FileChannel channel = FileChannel.open(cache.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() < intPixelCacheHeaderBytes){
+        return null;
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      // Checks that the cache is in this format and was made from the current PNG
+      if (buffer.getInt() != intPixelCacheMagic || buffer.getInt() != intPixelCacheVersion || buffer.getLong() != lngLength){
+        return null;
+      }
+      long lngCachedModified = buffer.getLong();
+      long lngCachedHash = buffer.getLong();
+      if (lngCachedModified != lngModified){
+        // the PNG was touched, so only its contents can tell if the cache is still good
+        if (hashFile(png) != lngCachedHash){
+          return null;
+        }
+        stampPixelCache(cache, lngModified);
+      }
+      int intW = buffer.getInt();
+      int intH = buffer.getInt();
+      int intFormat = buffer.getInt();
+      if (channel.size() != intPixelCacheHeaderBytes + (long) intW * intH * 4){
+        return null;
+      }
+      PImage img = createImage(intW, intH, intFormat);
+      IntBuffer pixels = buffer.asIntBuffer();
+      pixels.get(img.pixels);
+      return img;
+    }
+    catch (IOException e){
+      return null;
+    }
+  }
+  /**
+   * Records a new last-modified time for the PNG in a pixel cache that is still good
+   * 
+   * @param cache The raw pixel cache file
+   * @param lngModified Last-modified time of the PNG
+   */
+  public void stampPixelCache(File cache, long lngModified){
+    try (FileChannel channel = FileChannel.open(cache.toPath(), StandardOpenOption.WRITE)) {
+      ByteBuffer stamp = ByteBuffer.allocate(8);
+      stamp.putLong(0, lngModified);
+      channel.write(stamp, intPixelCacheModifiedOffset);
+    }
+    catch (IOException e){
+      // the PNG is hashed again next launch
+    }
+  }
+  /**
+   * Saves the decoded pixels of an image next to its PNG; written to a temporary file first so a half-written cache is never read
+   * 
+   * @param cache The raw pixel cache file
+   * @param img The decoded image
+   * @param lngLength Length of the PNG the image was decoded from
+   * @param lngModified Last-modified time of the PNG the image was decoded from
+   * @param lngHash Hash of the PNG the image was decoded from
+   */
+  public void writePixelCache(File cache, PImage img, long lngLength, long lngModified, long lngHash){
+    File temp = new File(cache.getPath() + ".tmp" + Thread.currentThread().getId());
+    img.loadPixels();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+      out.writeInt(intPixelCacheMagic);
+      out.writeInt(intPixelCacheVersion);
+      out.writeLong(lngLength);
+      out.writeLong(lngModified);
+      out.writeLong(lngHash);
+      out.writeInt(img.width);
+      out.writeInt(img.height);
+      out.writeInt(img.format);
+      ByteBuffer pixels = ByteBuffer.allocate(img.pixels.length * 4);
+      pixels.asIntBuffer().put(img.pixels);
+      out.write(pixels.array());
+    }
+    catch (IOException e){
+      println("Could not write pixel cache: " + e.getMessage());
+      temp.delete();
+      return;
+    }
+    try {
+      Files.move(temp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException e){
+      println("Could not write pixel cache: " + e.getMessage());
+      temp.delete();
+    }
+  }
+  // ----------------SPRITE ATLAS METHODS------------------------
+  /**
+   * Loads the sprite atlas, packing it first if it is missing or older than any of its sprites
+   * Runs on the asset loader threads
+   * 
+   * @return the atlas image with the index of every sprite inside it
+   */
+  public SpriteAtlas loadSpriteAtlas(){
+    File atlasIndex = new File(sketchPath(strAtlasIndexPath));
+    File atlasImage = new File(sketchPath(strAtlasImagePath));
+    // Checks if any sprite has been changed since the atlas was last packed
+    boolean isAtlasStale = !atlasIndex.exists() || !atlasImage.exists();
+    for (int i = 0; i < strAtlasSprites.length && !isAtlasStale; i++){
+      if (new File(sketchPath(strAtlasSprites[i][1])).lastModified() > atlasIndex.lastModified()){
+        isAtlasStale = true;
+      }
+    }
+    if (isAtlasStale){
+      return packSpriteAtlas();
+    }
+    // Reads the packed atlas and its index, one loading step each
+    intAtlasSteps = 2;
+    SpriteAtlas atlas = new SpriteAtlas();
+    atlas.img = loadImage(strAtlasImagePath);
+    intAtlasStepsDone++;
+    for (String strLine : loadStrings(strAtlasIndexPath)){
+      String[] strParts = split(strLine, ' ');
+      atlas.regions.put(strParts[0], new SpriteRegion(parseInt(strParts[1]), parseInt(strParts[2]), parseInt(strParts[3]), parseInt(strParts[4])));
+    }
+    intAtlasStepsDone++;
+    return atlas;
+  }
+  /**
+   * Scales every sprite to its display size and packs them into rows of a single atlas image
+   * The atlas and its index are saved so later launches only need to decode one image
+   * 
+   * @return the packed atlas image with the index of every sprite inside it
+   */
+  public SpriteAtlas packSpriteAtlas(){
+    // every sprite decode is a loading step, and so is saving the packed atlas
+    intAtlasSteps = strAtlasSprites.length + 1;
+    SpriteAtlas atlas = new SpriteAtlas();
+    PImage[] sprites = new PImage[strAtlasSprites.length];
+    String[] strIndex = new String[strAtlasSprites.length];
+    // Places the sprites left to right, starting a new row when the current one is full
+    int intRowX = 0;
+    int intRowY = 0;
+    int intRowHeight = 0;
+    for (int i = 0; i < strAtlasSprites.length; i++){
+      int intW = parseInt(strAtlasSprites[i][2]);
+      int intH = parseInt(strAtlasSprites[i][3]);
+      sprites[i] = loadImage(strAtlasSprites[i][1]);
+      if (sprites[i].width != intW || sprites[i].height != intH){
+        sprites[i].resize(intW, intH);
+      }
+      intAtlasStepsDone++;
+      if (intRowX + intW > intAtlasWidth){
+        intRowX = 0;
+        intRowY += intRowHeight + 1;
+        intRowHeight = 0;
+      }
+      atlas.regions.put(strAtlasSprites[i][0], new SpriteRegion(intRowX, intRowY, intW, intH));
+      strIndex[i] = strAtlasSprites[i][0] + " " + intRowX + " " + intRowY + " " + intW + " " + intH;
+      // leaves a 1 pixel gap so neighbouring sprites never bleed into each other
+      intRowX += intW + 1;
+      intRowHeight = max(intRowHeight, intH);
+    }
+    // Copies every sprite into its region of the atlas
+    atlas.img = createImage(intAtlasWidth, intRowY + intRowHeight, ARGB);
+    for (int i = 0; i < strAtlasSprites.length; i++){
+      SpriteRegion region = atlas.get(strAtlasSprites[i][0]);
+      atlas.img.copy(sprites[i], 0, 0, region.intW, region.intH, region.intX, region.intY, region.intW, region.intH);
+    }
+    atlas.img.save(sketchPath(strAtlasImagePath));
+    saveStrings(strAtlasIndexPath, strIndex);
+    intAtlasStepsDone++;
+    return atlas;
+  }
+  /**
+   * Assigns the sprite atlas and each of its sprite regions to their variables
+   * 
+   * @param atlas The loaded sprite atlas
+   */
+  public void applySpriteAtlas(SpriteAtlas atlas){
+    spriteAtlas = atlas.img;
+    playerForward = atlas.get("playerForward");
+    playerBackward = atlas.get("playerBackward");
+    playerLeft = atlas.get("playerLeft");
+    playerRight = atlas.get("playerRight");
+    playerFacings = new SpriteRegion[] {playerForward, playerBackward, playerLeft, playerRight};
+    woodenPlank = atlas.get("woodenPlank");
+    exclamationMark = atlas.get("exclamationMark");
+    buildExclamRamp();
+  }
+  /**
+   * Draws a single sprite out of the sprite atlas
+   * 
+   * @param region Region of the sprite inside the atlas
+   * @param fltX X-coordinate to draw the sprite at
+   * @param fltY Y-coordinate to draw the sprite at
+   */
+  public void drawSprite(SpriteRegion region, float fltX, float fltY){
+    markDirty(fltX, fltY, region.intW, region.intH);
+    image(spriteAtlas, fltX, fltY, region.intW, region.intH, region.intX, region.intY, region.intX + region.intW, region.intY + region.intH);
+  }
+  // ----------------TEXT RUN CACHE METHODS------------------------
+  /**
+   * Draws text the same way text() does, but renders each unique combination of text, size, colour and alignment only once
+   * 
+   * @param str The text to draw
+   * @param fltX X-coordinate of the text, following the current textAlign()
+   * @param fltY Y-coordinate of the text, following the current textAlign()
+   */
+  public void drawTextRun(String str, float fltX, float fltY){
+    if (str.isEmpty()){
+      return;
+    }
+    String strKey = str + '\u0000' + g.textSize + '\u0000' + g.fillColor + '\u0000' + g.textAlign + '\u0000' + g.textAlignY;
+    TextRun run = textRuns.get(strKey);
+    if (run == null){
+      run = renderTextRun(str);
+      textRuns.put(strKey, run);
+    }
+    image(run.img, fltX + run.fltOffsetX, fltY + run.fltOffsetY);
+  }
+  /**
+   * Renders text into an image using the current font, size, colour and alignment
+   * 
+   * @param str The text to render
+   * @return the rendered text and its offset from the text position
+   */
+  public TextRun renderTextRun(String str){
+    textScratch.beginDraw();
+    textScratch.clear();
+    textScratch.textFont(g.textFont, g.textSize);
+    textScratch.fill(g.fillColor);
+    textScratch.textAlign(LEFT, BASELINE);
+    float fltAscent = textScratch.textAscent();
+    float fltDescent = textScratch.textDescent();
+    float fltW = textScratch.textWidth(str);
+    textScratch.text(str, intTextRunPadding, intTextRunPadding + fltAscent);
+    textScratch.endDraw();
+
+    // Cuts the rendered text out of the scratch image
+    int intW = min(textScratch.width, ceil(fltW) + intTextRunPadding * 2);
+    int intH = min(textScratch.height, ceil(fltAscent + fltDescent) + intTextRunPadding * 2);
+    PImage img = textScratch.get(0, 0, intW, intH);
+
+    // Works out where text() would have put the left edge and baseline of the text
+    float fltAnchorX = 0;
+    if (g.textAlign == CENTER){
+      fltAnchorX = fltW / 2;
     }
-    // Setting 1
-    if (intScreenNumber == 1){
-      text("Make your way to the shattered windows to ", width / 2, height / 2);
-      text("escape the boss's office", width / 2, height / 2 + 25);
-    }
-    // Game 1
-    if (intScreenNumber == 2){
-      text("Introducing the skybridge...", width / 2, 160);
-      text("Well the soon to be skybridge, for now it's more ", width / 2, 200);
-      text("like a broken bridge.", width / 2, 240);
-      text("In this first puzzle, there are 3 pairs of wooden planks", width / 2, 280);
-      text("placed next to each ther. ", width / 2, 320);
-      text("In each pair of wooden planks, one is safe", width / 2, 360);
-      text("while the other plunges you to your death sending you back", width / 2, 400);
-      text("to the start of the bridge.", width / 2, 440);
-    }
-    // Transfer 1
-    if (intScreenNumber == 3){
-      text("GO TO THE ELEVATOR TO ESCAPE THE BUILDING", width / 2, height / 2);
-    }
-    // Setting 2
-    if (intScreenNumber == 4 && !isGameVictory){
-      text("The desk seems to have something on it...", width / 2, height / 2);
-    }
-    if (intScreenNumber == 4 && isGameVictory){
-      text("GO TO THE ELEVATOR TO ESCAPE THE BUILDING", width / 2, height / 2);
-    }
-    // Game 2
-    if (intScreenNumber == 5){
-      text("This is the ORIGINAL Wordle game by the ", width / 2, 160);
-      text("New York Times.", width / 2, 200);
-      text("To play, enter 5 letter combinations and ", width / 2, 240);
-      text("press enter to check if your guess is the ", width / 2, 280);
-      text("target 5 letter word. ", width / 2, 320);
-      text("Red means the letter is not in the correct word.", width / 2, 360);
-      text("Yellow means the letter is in the correct word, ", width / 2, 400);
-      text("but not in the correct position.", width / 2, 440);
-      text("Green means the letter is in the correct word ", width / 2, 480);
-      text("and is in the correct position.", width / 2, 520);
-    }
-    // Setting 3
-    if (intScreenNumber == 6 && !isGameVictory){
-      text("The desk seems to have something on it...", width / 2, height / 2);
-    }
-    if (intScreenNumber == 6 && isGameVictory){
-      text("GO TO THE ELEVATOR TO ESCAPE THE BUILDING", width / 2, height / 2);
-    }
-    // Game 3
-    if (intScreenNumber == 7){
-      text("This is Connections, the classic puzzle game by the", width / 2, 160);
-      text("New York Times.", width / 2, 200);
-      text("To play, you will need to sort all 16 tiles into ", width / 2, 240);
-      text("four groups of four such that the words in each group", width / 2, 280);
-      text("belong to a specific category.", width / 2, 320);
-      text("Press ENTER to guess. A wrong guess will lose a life.", width / 2, 360);
-      text("When a group is found, the category is revealed", width / 2, 400);
-      text("and the words will no longer be selectable.", width / 2, 440);
-      text("The categories range from easy to extremely hard.", width / 2, 480);
-      text("The game is won once all four groups are found.", width / 2 - 50, 520);
-    }
-    // Transfer 2
-    if (intScreenNumber == 8){
-      text("GO TO THE EXIT!!!", width / 2, height / 2);
+    else if (g.textAlign == RIGHT){
+      fltAnchorX = fltW;
     }
-    // displays back button to exit information pop-up
-    backButton.isOver = backButton.isOver();
-    backButton.display();
+    float fltBaseline = 0;
+    if (g.textAlignY == TOP){
+      fltBaseline = fltAscent;
+    }
+    else if (g.textAlignY == CENTER){
+      fltBaseline = fltAscent / 2; // single-line text() centers on half the ascent
+    }
+    else if (g.textAlignY == BOTTOM){
+      fltBaseline = -fltDescent;
+    }
+    return new TextRun(img, -fltAnchorX - intTextRunPadding, fltBaseline - fltAscent - intTextRunPadding);
   }
+  // ----------------DIRTY RECTANGLE METHODS------------------------
   /**
-   * Draws a popup window when the player wins.
+   * Decides if this frame can repaint only the moving parts of the screen and starts a new list of moving parts
+   * Floor screens qualify when nothing but the player, exclamation mark and clock has changed since the last frame
    */
-  public void drawWinPopup() {
-    // draws padding rectangle
-    fill(0, 0, 0, 150);
-    rect(50, 50, width - 100, height - 100);
-    // displays win text
-    fill(255);
-    textAlign(CENTER);
-    textSize(24);
-    text("You Win!", width / 2, height / 2 - 50);
-    text("Congratulations!", width / 2, height / 2);
-    // displays back button to escape pop-up and continue to next scene
-    backButton.isOver = backButton.isOver();
-    backButton.display();
+  public void beginDirtyFrame(){
+    boolean isFloorScreen = game.intScreenNumber == 1 || game.intScreenNumber == 3 || game.intScreenNumber == 4 || game.intScreenNumber == 6 || game.intScreenNumber == 8;
+    // Pop-ups, fades and screen changes cover the whole screen, so they always need a full repaint
+    boolean isPartialEligible = isDirtyRectMode && isFloorScreen && !game.showPopup && !game.isSwitchButtonDisplayed && game.fltElevatorAlpha == 0 && !game.isScreenFaded;
+    isPartialRepaint = isPartialEligible && wasPartialEligible && game.intScreenNumber == intLastFrameScreen && isLayerCacheValid();
+    wasPartialEligible = isPartialEligible;
+    intLastFrameScreen = game.intScreenNumber;
+
+    // the moving parts drawn last frame are the areas that need restoring this frame
+    int[] intSwap = intPrevDirtyRects;
+    intPrevDirtyRects = intDirtyRects;
+    intDirtyRects = intSwap;
+    intPrevDirtyCount = intDirtyCount;
+    intDirtyCount = 0;
   }
   /**
-   * Draws a popup window when the player loses.
+   * Records the area of a moving element so it can be restored from the background next frame
+   * 
+   * @param fltX X-coordinate of the element
+   * @param fltY Y-coordinate of the element
+   * @param fltW Width of the element
+   * @param fltH Height of the element
    */
-  public void drawLosePopup() {
-    // draws padding rectangle
-    fill(0, 0, 0, 150);
-    rect(50, 50, width - 100, height - 100);
-    // displays lose text
-    fill(255);
-    textAlign(CENTER);
-    textSize(24);
-    text("You Lose!", width / 2, height / 2 - 50);
-    text("Better luck next time!", width / 2, height / 2);
-    // displays back button to escape pop-up and play the game again
-    backButton.isOver = backButton.isOver();
-    backButton.display();
+  public void markDirty(float fltX, float fltY, float fltW, float fltH){
+    // falls back to a full repaint next frame if there are too many moving elements to track
+    if (intDirtyCount == intMaxDirtyRects){
+      wasPartialEligible = false;
+      return;
+    }
+    // pads the area so anti-aliased edges are restored as well
+    int intX = max(0, (int) fltX - 2);
+    int intY = max(0, (int) fltY - 2);
+    intDirtyRects[intDirtyCount * 4] = intX;
+    intDirtyRects[intDirtyCount * 4 + 1] = intY;
+    intDirtyRects[intDirtyCount * 4 + 2] = min(width, (int) (fltX + fltW) + 3) - intX;
+    intDirtyRects[intDirtyCount * 4 + 3] = min(height, (int) (fltY + fltH) + 3) - intY;
+    intDirtyCount++;
   }
-  /** 
-   * Before entering this game, a brief preamble and a button will be displayed through this pop-up
-   * Only after clicking the button will the player be able to play the game
+  /**
+   * Copies the background back over every area a moving element was drawn on last frame
    */
-  public void drawGameInfoPopup() {
-    // draws padding rectangle
-    fill(0, 0, 0, 150);
-    rect(50, 50, width - 100, height - 100);
-    // displays game preamble text
-    fill(255);
-    textAlign(CENTER);
-    textSize(24);
-    if (intScreenNumber == 4){
-      text("Complete the Wordle to Unlock the Elevator", width / 2, height / 2 - 50);
-      text("Intelligence is needed to join the New York Times", width / 2, height / 2);
-      text("Genius is needed to leave the New York Times", width / 2, height / 2 + 50);
-    }
-    else if (intScreenNumber == 6){
-      text("Solve the Connections puzzle to Unlock the Elevator", width / 2, height / 2 - 50);
-      text("'Know the enemy, know yourself;", width / 2, height / 2);
-      text("victory will never be endangered' - Sun Tzu", width / 2, height / 2 + 50);
+  public void restoreDirtyRects(){
+    for (int i = 0; i < intPrevDirtyCount; i++){
+      int intX = intPrevDirtyRects[i * 4];
+      int intY = intPrevDirtyRects[i * 4 + 1];
+      int intW = intPrevDirtyRects[i * 4 + 2];
+      int intH = intPrevDirtyRects[i * 4 + 3];
+      if (intW > 0 && intH > 0){
+        image(backgroundLayer, intX, intY, intW, intH, intX, intY, intX + intW, intY + intH);
+      }
     }
-    // displays start mini-game button to escape pop-up and go to the "game" screen
-    gameButton.isOver = gameButton.isOver();
-    gameButton.display();
   }
-  // <-----------------------PLANK PUZZLE METHODS ------------------------------->
+  // ----------------LAYER CACHE METHODS------------------------
   /**
-   * Considers hitboxes of when the player falls off the building to regular player movement
-   * Resets the player to the initial starting position
+   * Re-renders the background and popup layers when the screen state has changed since they were last drawn
    */
-  public void playerMovementPlankWalk(){
-    // Death barriers (Left block, right block, top death, middle death, bottom death)
-    if ((intPlayerX <= 268 && intPlayerY <= 459)|| (intPlayerX >= width - 254 - 50 && intPlayerY <= 459) || (intPlayerX >= 374 - 50 && intPlayerX <= 374 + 66 && intPlayerY >= 50  - 80 && intPlayerY <= 50 + 73) || (intPlayerX >= 374 - 50 && intPlayerX <= 374 + 66 && intPlayerY >= 243 - 80 && intPlayerY <= 243 + 66) || (intPlayerX >= 374 - 50 && intPlayerX <= 374 + 66 && intPlayerY >= 425 - 80 && intPlayerY <= 425 + 63)) {
-      fallingOffMap();
-      return; // Exit the method to prevent further movement
-    }
-    // First Dissapearing Plank
-    if (intPlayerX >= 455 - 20 && intPlayerX <= 455 + 80 + 20 && intPlayerY >= 425  && intPlayerY <= 425 + 29){
-      isPlank1Show = false;
-      fallingOffMap();
+  public void refreshLayerCache(){
+    // Keeps the cached layers if nothing that affects them has changed
+    if (isLayerCacheValid()){
       return;
     }
-    // Second Dissapearing Plank
-    if (intPlayerX >= 455 - 20 && intPlayerX <= 455 + 80 + 20 && intPlayerY >= 245  && intPlayerY <= 245 + 29){
-      isPlank2Show = false;
-      fallingOffMap();
-      return;
+    intCachedScreen = game.intScreenNumber;
+    isCachedPopup = game.showPopup;
+    isCachedVictory = game.isGameVictory;
+    isCachedElevatorOpen = game.isElevatorOpen;
+    intCachedHighScoreVersion = game.intHighScoreVersion;
+    intCachedCameraX = intCameraX;
+    intCachedCameraY = intCameraY;
+
+    // renders the screen background
+    drawIntoLayer(backgroundLayer, this::drawScreenBackground);
+
+    // renders the information popup, if it is showing
+    if (game.showPopup){
+      drawIntoLayer(popupLayer, () -> {
+        clear();
+        drawPopupPanel();
+      });
+    }
+  }
+  /**
+   * Checks if the cached layers still match the current screen state
+   * 
+   * @return true if the cached layers can be drawn as they are, false if they need to be re-rendered
+   */
+  public boolean isLayerCacheValid(){
+    return intCachedHighScoreVersion == game.intHighScoreVersion && intCachedScreen == game.intScreenNumber && isCachedPopup == game.showPopup && isCachedVictory == game.isGameVictory && isCachedElevatorOpen == game.isElevatorOpen && intCachedCameraX == intCameraX && intCachedCameraY == intCameraY;
+  }
+  /**
+   * Draws the background of the current screen, called only when the background layer is re-rendered
+   */
+  public void drawScreenBackground(){
+    // Open elevator after player wins game, close elevator before player wins game
+    if (game.intScreenNumber == 4 || game.intScreenNumber == 6) {
+      drawBackgroundImage(intScreenBackgrounds[game.intScreenNumber][game.isGameVictory ? 1 : 0]);
     }
-    // Third Dissapearing Plank
-    if (intPlayerX >= 277 - 20 && intPlayerX <= 277 + 80 + 20 && intPlayerY >= 67  && intPlayerY <= 67 + 29){
-      isPlank3Show = false;
-      fallingOffMap();
+    else if (game.intScreenNumber == 5) {
+      background(210, 255, 173);
+    }
+    else if (game.intScreenNumber == 7) {
+      background(255);
+    }
+    else {
+      drawBackgroundImage(intScreenBackgrounds[game.intScreenNumber][0]);
+    }
+  }
+  /**
+   * Draws the part of a background the camera shows, whole or from its chunks
+   * 
+   * @param intId Index of the background
+   */
+  public void drawBackgroundImage(int intId){
+    if (backgroundChunks[intId] == null){
+      PImage img = backgrounds.get(intId);
+      if (img == null){
+        // a background that failed to decode shows as plain gray, and the layer is drawn again next frame to retry it
+        background(50);
+        intCachedScreen = -1;
+        return;
+      }
+      image(img, -intCameraX, -intCameraY);
       return;
     }
-
-    // player movement is called here
-    playerMovement();
+    background(50);
+    // a chunk that is still decoding leaves a gap, so the layer is drawn again next frame
+    if (!backgroundChunks[intId].draw(intCameraX, intCameraY)){
+      intCachedScreen = -1;
+    }
+  }
+  /**
+   * Draws the cached background of the current screen
+   */
+  public void drawBackgroundLayer(){
+    refreshLayerCache();
+    if (isPartialRepaint){
+      restoreDirtyRects();
+    }
+    else {
+      image(backgroundLayer, 0, 0);
+    }
+  }
+  /**
+   * Draws the cached information popup of the current screen
+   */
+  public void drawPopupLayer(){
+    refreshLayerCache();
+    markDirty(50, 50, width - 100, height - 100);
+    image(popupLayer, 0, 0);
+  }
+  /**
+   * Redirects all drawing calls into the given offscreen layer while the given drawing runs
+   * The screen is always drawn on again afterwards, even if the drawing throws
+   * 
+   * @param layer The offscreen layer to draw into
+   * @param drawing Draws the contents of the layer
+   */
+  public void drawIntoLayer(PGraphics layer, Runnable drawing){
+    PGraphics screen = g;
+    boolean isDrawn = false;
+    layer.beginDraw();
+    g = layer;
+    try {
+      drawing.run();
+      isDrawn = true;
+    }
+    finally {
+      g = screen;
+      layer.endDraw();
+      // a layer left half drawn is rendered again next frame instead of being kept
+      if (!isDrawn){
+        intCachedScreen = -1;
+      }
+    }
   }
   // ----------------WORDLE METHODS------------------------
   /**
-   * Draws the Wordle-like grid and handles Game2 logic.
+   * Draws the Wordle-like grid.
    */
   public void drawWordleGrid() {
+    // the row of a guess that is not a word shakes from side to side, settling down as it goes
+    int intShakeTick = GameCore.intInvalidShowTicks - game.intInvalidTicks;
+    float fltShake = 0;
+    if (game.intInvalidTicks > 0 && intShakeTick < GameCore.intShakeTicks) {
+      fltShake = 10 * sin(TWO_PI * intShakeTick / 12f) * (1 - (float) intShakeTick / GameCore.intShakeTicks);
+    }
     // draws grid based on intGridSizeY and intGridSizeX
-    for (int i = 0; i < intGridSizeY; i++) {
-      for (int j = 0; j < intGridSizeX; j++) {
+    for (int i = 0; i < game.intGridSizeY; i++) {
+      float fltRowShift = i == game.intCurrentRow ? fltShake : 0;
+      for (int j = 0; j < game.intGridSizeX; j++) {
         // draws grid of boxes for letters to be displayed in
         fill(200);
-        rect(j * 80 + (width - 380) / 2, i * 80 + 100, 60, 60);
+        rect(j * 80 + (width - 380) / 2 + fltRowShift, i * 80 + 100, 60, 60);
         // Checks if the game is properly initialized
-        if (strGuesses[i] != null && j < strGuesses[i].length()) {
-          // Assigns colour to each inputted letter's box based on correctness to the target word
-          char letter = strGuesses[i].charAt(j);
-          if (strTargetWord.charAt(j) == letter && i != intCurrentRow) {
-            fill(0, 255, 0); // Correct letter and position
-          } 
-          else if (strTargetWord.indexOf(letter) != -1 && i != intCurrentRow) {
-            fill(255, 255, 0); // Correct letter but wrong position
-          } 
-          else if (i != intCurrentRow) {
-            fill(255, 0, 0); // Incorrect letter
-          } 
+        if (game.strGuesses[i] != null && j < game.strGuesses[i].length()) {
+          // Assigns colour to each inputted letter's box from the marks worked out when the row was checked
+          char letter = game.strGuesses[i].charAt(j);
+          if (i < game.intCurrentRow) {
+            fill(intMarkColours[GameCore.intPatternMarks[game.intRowPatterns[i]][j]]);
+          }
           else {
             fill(200); // empty box
           }
           // Draws the specific letter in the box (in CAPITAL letters)
-          rect(j * 80 + (width - 380) / 2, i * 80 + 100, 60, 60);
+          rect(j * 80 + (width - 380) / 2 + fltRowShift, i * 80 + 100, 60, 60);
           fill(0);
           textSize(32);
-          text(Character.toUpperCase(letter), j * 80 + (width - 380) / 2 + 20, i * 80 + 120);
+          drawTextRun(String.valueOf(Character.toUpperCase(letter)), j * 80 + (width - 380) / 2 + 20 + fltRowShift, i * 80 + 120);
         }
       }
     }
-  }
-  /**
-   * Checks if the guesses for Game 2 (WORDLE) are correct answers
-   */
-  public void checkWordleGuess() {
-    // checks if working row letters match the target word
-    if (strGuesses[intCurrentRow].equals(strTargetWord)) {
-      isGameOver = true;
-      isGameVictory = true;
-    } 
-    // Checks if all rows have been used
-    else if (intCurrentRow == intGridSizeY - 1) {
-      isGameOver = true;
-      isGameVictory = false;
+    // tells the player why the guess was not taken
+    if (game.intInvalidTicks > 0) {
+      fill(0);
+      rect(width / 2 - 110, 562, 220, 34, 6);
+      fill(255);
+      textSize(20);
+      textAlign(CENTER);
+      drawTextRun("Not in word list", width / 2, 586);
     }
   }
   // ----------------CONNECTIONS METHODS------------------------
   /**
-   * Draws the Connections Game grid and handles Game 3 logic.
+   * Draws the Connections Game grid.
    */
   public void ConnectionsGameScreen(){
-    background(255); 
+    drawBackgroundLayer();
     // Initializing method variable
     int intWordColumn = 0;
     // Draws out boxes in a 4x4 grid with text in each of them. Depending on the status of the box, completed, selected, unselected, it will have a different colour
     for (int rectColumn = 40; rectColumn < 600; rectColumn += 140) {
       int intWordRow = 0;
       for (int rectRow = 40; rectRow < 600; rectRow += 140) {
-        if (solvedGroups[intWordColumn][intWordRow]) {
+        if (game.solvedGroups[intWordColumn][intWordRow]) {
           fill(200); 
-        } else if (selectedBoxes[intWordColumn][intWordRow]) {
+        } else if (game.selectedBoxes[intWordColumn][intWordRow]) {
           fill(0, 255, 0); 
         } else {
           fill(255); 
@@ -914,7 +1869,7 @@ public class Sketch extends PApplet {
         rect(rectRow, rectColumn, 100, 100);
         textSize(20);
         fill(0);
-        text(strIncorrectGroups[intWordColumn][intWordRow], 8 + rectRow, 31 + rectColumn);
+        drawTextRun(game.strIncorrectGroups[intWordColumn][intWordRow], 8 + rectRow, 31 + rectColumn);
         intWordRow++;
       }
       intWordColumn++;
@@ -922,549 +1877,289 @@ public class Sketch extends PApplet {
     // Writes the current message to the top of the screen
     textSize(20);
     fill(0);
-    text(strMessage, 30, 10);
+    drawTextRun(game.strMessage, 30, 10);
 
     // Display lives
     textSize(20);
     fill(0);
-    text("Lives left: " + intLives, width - 130, 90);
-    // Check if game is won
-    if (checkIfGameWon()) {
-      isGameVictory = true;
-      isGameOver = true;
-    }
+    drawTextRun("Lives left: " + game.intLives, width - 130, 90);
   }
+  // -----------------------------MOUSE EVENT METHODS----------------------------
   /**
-   * Checks if the selected words form a correct group. If not, it checks for one away and removes a life. If wrong then removes a life.
+   * Queues mouse pressed events for the next tick
    */
-  public void checkSelectedWords() {
-    // Checks that 4 words are selected
-    if (selectedWords.size() != 4) {
-      strMessage = "You must select exactly 4 words.";
-      return;
-    }
-
-    for (int i = 0; i < strCorrectGroups.length; i++) {
-      String[] correctGroup = Arrays.copyOfRange(strCorrectGroups[i], 0, 4);
-      if (selectedWords.containsAll(Arrays.asList(correctGroup))) {
-        // Mark the solved group
-        for (int j = 0; j < 4; j++) {
-          int index = findWordIndex(strCorrectGroups[i][j]);
-          if (index != -1) {
-            int row = index / 4;
-            int col = index % 4;
-            solvedGroups[row][col] = true;
-          }
-        }
-        strMessage = "You solved the group: " + strCorrectGroups[i][4];
-        selectedWords.clear();
-        
-        return;
-      }
-    }
-    // If the correctGroup was not found, checks for one word away, and if not then just removes a life
-    boolean correctGroupFound = false;
-    if (!correctGroupFound) {
-      if (checkIfOneWordAway()) {
-        strMessage = "One word away...";
-        intLives--;
-        if (intLives <= 0) {
-          isGameOver = true;
-        }
-      } 
-      else {
-        strMessage = "Selected words are incorrect.";
-        intLives--;
-        if (intLives <= 0) {
-          isGameOver = true;
-        }
-      }
-    }
+  public void mousePressed() {
+    // click-to-move turns the click into a floor position with the camera that was drawn, not the one at the tick position
+    inputQueue.offerMousePressed(mouseX, mouseY, intCameraX, intCameraY, millis());
+    wakeUp();
   }
   /**
-   * Checks if the selected words are one word away from forming a correct group.
-   * 
-   * @return true if three out of four words are correct and belong to the same category, false otherwise
+   * Handles mouse moved events so button hover colours update on idle screens
    */
-  public boolean checkIfOneWordAway() {
-    for (int i = 0; i < strCorrectGroups.length; i++) {
-      int matchCount = 0;
-      for (int j = 0; j < 4; j++) {
-        if (selectedWords.contains(strCorrectGroups[i][j])) {
-          matchCount++;
-        }
-      }
-      if (matchCount == 3) {
-        return true;
-      }
-    }
-    return false;
+  public void mouseMoved() {
+    wakeUp();
   }
   /**
-   * Finds the index of a given word in the incorrectGroups array.
-   * 
-   * @param word is the string word to find
-   * @return the index of the word, or -1 if not found
+   * Handles mouse dragged events so button hover colours update on idle screens
    */
-  public int findWordIndex(String word) {
-    for (int i = 0; i < strIncorrectGroups.length; i++) {
-      for (int j = 0; j < strIncorrectGroups[i].length; j++) {
-        if (strIncorrectGroups[i][j].equals(word)) {
-          return i * 4 + j;
-        }
-      }
-    }
-    return -1;
+  public void mouseDragged() {
+    wakeUp();
   }
+  // -------------------------------------KEY RELEASED / PRESSED METHODS------------------------------
   /**
-   * Checks if all groups are solved and will make the game end if it has
-   * 
-   * @return true if the game is won, false otherwise
+   * Queues key release events for the next tick
    */
-  public boolean checkIfGameWon() {
-    for (int i = 0; i < solvedGroups.length; i++) {
-      for (int j = 0; j < solvedGroups[i].length; j++) {
-        if (!solvedGroups[i][j]) {
-          return false;
-        }
-      }
-    }
-    return true;
+  public void keyReleased(){
+    inputQueue.offerKeyReleased(keyCode, millis());
+    wakeUp();
   }
-  // -----------------------------MOUSE EVENT METHODS----------------------------
   /**
-   * Handles mouse pressed events
+   * Queues key pressed events for the next tick
    */
-  public void mousePressed() {
-    // Start game button (Intro screen)
-    if (intScreenNumber == 0) {
-      // brings player from intro screen to setting 1
-      if (startButton.isOver() && !showPopup) {
-        intStartTime = millis();
-        intScreenNumber = 1; // Change to Setting1 
-        resetSetting();
-      } 
-      // Toggling between three different wordle difficulties (0 = easy, 1 = medium, 2 = hard)
-      if (difficultyButton.isOver() && !showPopup){
-        if (intWordleDifficulty == 2){
-          intWordleDifficulty = 0;
-        }
-        else{
-          intWordleDifficulty++;
-        }
-      }
-
-      // Upon clicking, will show screen-specific guiding information
-      if (highscoreButton.isOver()) {
-        showPopup = true;
-      } 
-      // Upon clicking back button of the pop-up, the extra info pop-up will stop displaying
-      else if (showPopup && backButton.isOver()) {
-        showPopup = false;
-      }
-    } 
-    // Game 1
-    if (intScreenNumber == 2) {
-      // Upon game1 win, the user is directed back to the setting 1 screen
-      if (backButton.isOver() && showWinPopup) {
-        intScreenNumber = 3; // Change to Transfer 1
-        resetSetting();
-        showWinPopup = false;
-      } 
-      // Upon game1 loss, the user is directed to play the game again!
-      else if (backButton.isOver() && showLosePopup) {
-        initializeGame2();
-        showLosePopup = false;
-      } 
-    }
-
-    // Setting 2 Buttons
-    if (intScreenNumber == 4 && isSwitchButtonDisplayed) {
-      // Takes user from Setting 2 to Game 2
-      if (gameButton.isOver()) {
-        initializeGame2();
-        intScreenNumber = 5; // Change to Game 2
-        isSwitchButtonDisplayed = false;
-      } 
-    } 
-
-    // Game 2 buttons
-    if (intScreenNumber == 5) {
-      // Upon game 2 win, the user is directed back to the setting 2 screen
-      if (backButton.isOver() && showWinPopup) {
-        intScreenNumber = 4; // Change to Game1
-        showWinPopup = false;
-      } 
-      // Upon game 2 loss, the user is directed to play the game again!
-      else if (backButton.isOver() && showLosePopup) {
-        initializeGame2();
-        showLosePopup = false;
-      } 
-    }
-
-    // Setting 3 Button
-    if (intScreenNumber == 6 && isSwitchButtonDisplayed) {
-      // Takes user from Setting 3 to Game 3
-      if (gameButton.isOver()) {
-        initializeGame3();
-        intScreenNumber = 7; // Change to Game 3
-        isSwitchButtonDisplayed = false;
-      } 
-    } 
-    // Mouse press check for connections
-    if (intScreenNumber == 7){
-      // Selects and deselects boxes
-      int intWordColumn = 0;
-      for (int rectColumn = 40; rectColumn < 600; rectColumn += 140) {
-        int intWordRow = 0;
-        for (int rectRow = 40; rectRow < 600; rectRow += 140) {
-          if (mouseX > rectRow && mouseX < rectRow + 100 && mouseY > rectColumn && mouseY < rectColumn + 100) {
-            String word = strIncorrectGroups[intWordColumn][intWordRow];
-            if (solvedGroups[intWordColumn][intWordRow]) {
-              // Do nothing if the group is solved
-            } else if (selectedBoxes[intWordColumn][intWordRow]) {
-              // Deselect the box
-              selectedBoxes[intWordColumn][intWordRow] = false;
-              selectedWords.remove(word);
-            } else {
-              // Select the box if less than 4 are selected
-              if (selectedWords.size() < 4) {
-                selectedBoxes[intWordColumn][intWordRow] = true;
-                selectedWords.add(word);
-              }
-            }
-            return; 
-          }
-          intWordRow++;
-        }
-        intWordColumn++;
-      }
-    }
-    // Game 3 Buttons
-    if (intScreenNumber == 7) {
-      // Upon game 3 win, the user is directed back to the setting 3 screen
-      if (backButton.isOver() && showWinPopup) {
-        intScreenNumber = 6; // Change to Setting 3
-        showWinPopup = false;
-      } 
-      // Upon game 3 loss, the user is directed to play the game again!
-      else if (backButton.isOver() && showLosePopup) {
-        initializeGame3();
-        showLosePopup = false;
-      } 
-    }
-
-    // Extra info button for screens except intro and ending
-    if (intScreenNumber > 0 && intScreenNumber < 9) {
-      // Upon clicking, will show screen-specific guiding information
-      if (infoButton.isOver()) {
-        showPopup = true;
-      } 
-      // Upon clicking back button of the pop-up, the extra info pop-up will stop displaying
-      else if (showPopup && backButton.isOver()) {
-        showPopup = false;
-      }
-    } 
-    // Ending screen play again button
-    if (intScreenNumber == 9){
-      if (playAgainButton.isOver){
-        // go back to the intro screen
-        intScreenNumber = 0;
-        addTime();
-        restartGame();
-      }
-    }
+  public void keyPressed() {
+    inputQueue.offerKeyPressed(key, keyCode, millis());
+    wakeUp();
   }
-  // -------------------------------------KEY RELEASED / PRESSED METHODS------------------------------
+  // -------------------------------------IDLE METHODS------------------------------
   /**
-   * Handles key release events.
+   * Restarts drawing on any input; while stopped, Processing handles input straight away instead of waiting for the next frame
    */
-  public void keyReleased(){
-    // Player movement stops if key is released
-    if (keyCode == UP) {
-      isUpPressed = false;
+  public void wakeUp() {
+    intLastInputTime = millis();
+    if (!isLooping()) {
+      loop();
     }
-    if (keyCode == DOWN) {
-      isDownPressed = false;
-    }
-    if (keyCode == LEFT) {
-      isLeftPressed = false;
+  }
+  /**
+   * Stops drawing when the intro, ending, highscore or win/lose screen is showing and nothing is held, moving or animating
+   * Screens that show the clock are redrawn once a second
+   */
+  public void checkIdle() {
+    boolean isIdleScreen = (game.intScreenNumber == 0 && isAssetsLoaded()) || game.intScreenNumber == 9 || ((game.intScreenNumber == 5 || game.intScreenNumber == 7) && (game.showWinPopup || game.showLosePopup));
+    boolean isInputHeld = game.isUpPressed || game.isDownPressed || game.isLeftPressed || game.isRightPressed || mousePressed || !inputQueue.isEmpty();
+    boolean isMouseStill = mouseX == pmouseX && mouseY == pmouseY;
+    if (!isIdleScreen || isInputHeld || !isMouseStill || isAnimating() || millis() - intLastInputTime < intIdleDelayMillis) {
+      return;
     }
-    if (keyCode == RIGHT) {
-      isRightPressed = false;
+    noLoop();
+    // keeps the clock ticking on the win/lose screens
+    if (game.intScreenNumber != 0 && game.intScreenNumber != 9) {
+      int intUntilNextSecond = 1000 - (millis() - game.intStartTime) % 1000;
+      idleClock.schedule(this::redraw, intUntilNextSecond, TimeUnit.MILLISECONDS);
     }
   }
   /**
-   * Handles key pressed events.
+   * Checks if a fade or the exclamation mark is still moving on screen
+   * 
+   * @return true if something is animating, false otherwise
    */
-  public void keyPressed() {
-    // Game 2 key inputs
-    if (intScreenNumber == 5 && !isGameOver){
-      // Checks if input is a letter
-      if (key >= 'a' && key <= 'z' && (strGuesses[intCurrentRow] == null || strGuesses[intCurrentRow].length() < intGridSizeX) && !showPopup) {
-        // replaces null values with empty string
-        if (strGuesses[intCurrentRow] == null) {
-          strGuesses[intCurrentRow] = "";
-        }
-        // changes all inputs to capital letters
-        strGuesses[intCurrentRow] += Character.toUpperCase(key);
-      } 
-      // Removes letters from the working row that has yet to be submitted to check for correctness
-      else if (key == BACKSPACE && strGuesses[intCurrentRow] != null && strGuesses[intCurrentRow].length() > 0) {
-        strGuesses[intCurrentRow] = strGuesses[intCurrentRow].substring(0, strGuesses[intCurrentRow].length() - 1);
-      }
-      // Checks the working row for correctness
-      else if (key == ENTER && strGuesses[intCurrentRow] != null && strGuesses[intCurrentRow].length() == intGridSizeX) {
-        checkWordleGuess();
-        // moves onto next row
-        intCurrentRow++;
+  public boolean isAnimating() {
+    boolean isExclamShown = (game.intScreenNumber == 4 || game.intScreenNumber == 6) && !game.isGameVictory;
+    boolean isElevatorFading = game.fltElevatorAlpha > 0 && game.fltElevatorAlpha < 255;
+    boolean isFallingFading = game.fltFallingAlpha > 0 && game.fltFallingAlpha < 255;
+    return isExclamShown || isElevatorFading || isFallingFading;
+  }
+  // -------------------------------------SAVE AND RESUME METHODS------------------------------
+  /**
+   * Restores the run saved when the app was last closed, if there is one
+   */
+  public void resumeSnapshot() {
+    File snapshot = new File(sketchPath(strSnapshotPath));
+    if (snapshot.exists()) {
+      try {
+        GameSnapshot.restore(game, Files.readAllBytes(snapshot.toPath()));
       }
-    } 
-    // Game 3 Inputs
-    // Key press check for correctness for connections (Game 3)
-    if (intScreenNumber == 7){
-      if (key == ENTER) {
-        checkSelectedWords();
+      catch (IOException e) {
+        // starts over rather than carrying on from a half-restored game
+        println("Could not resume saved game: " + e.getMessage());
+        game = new GameCore(this::millis, new Random(lngSessionSeed), inputQueue);
       }
     }
-    // Player movement begins if key is held down
-    if (keyCode == UP) {
-      isUpPressed = true;
-    }
-    if (keyCode == DOWN) {
-      isDownPressed = true;
-    }
-    if (keyCode == LEFT) {
-      isLeftPressed = true;
-    }
-    if (keyCode == RIGHT) {
-      isRightPressed = true;
-    }
+    // snapshots are written on their own daemon thread so the disk never holds up a frame
+    snapshotWriter = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "snapshot-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
   }
-  // -------------------------- GAME INITIALIZATION METHODS-------------------------------
   /**
-   * Initializes Game 2 (WORDLE)
+   * Takes a snapshot when the screen has changed or a few seconds have passed since the last one
    */
-  public void initializeGame2() {
-    // initializing variables
-    isGameOver = false;
-    isGameVictory = false;
-    strGuesses = new String[intGridSizeY];
-    intCurrentRow = 0;
-    // Selects target answer randomly from string list
-    strTargetWord = strWordList[intWordleDifficulty][(int) (random(strWordList[0].length))]; // Randomly choose a target word
-    // println("Target Word: " + strTargetWord); // For debugging
-    // resetting all pop-ups
-    showLosePopup = false;
-    showWinPopup = false;
-    showPopup = false;
-    // initializing text size
-    textSize(32);
+  public void checkSnapshot() {
+    if (game.intScreenNumber == intSnapshotScreen && millis() - intLastSnapshotTime < intSnapshotIntervalMillis) {
+      return;
+    }
+    saveSnapshot();
   }
   /**
-   * Initializes Game 3 (CONNECTIONS)
+   * Captures the game state on the animation thread, between ticks, and hands it to the snapshot writer to save
    */
-  public void initializeGame3() {
-    // initializing variables
-    isGameOver = false;
-    isGameVictory = false;
-    selectedWords.clear();
-    selectedBoxes = new boolean[4][4];
-    solvedGroups = new boolean[4][4];
-    strMessage = "";
-    intLives = 4;
-    // resetting all pop-ups
-    showLosePopup = false;
-    showWinPopup = false;
-    showPopup = false;
-    // initializing text size
-    textSize(32);
-  }
-
-  public void restartGame(){
-    initializeGame2();
-    initializeGame3();
-    resetSetting();
-    isPlank1Show = true;
-    isPlank2Show = true;
-    isPlank3Show = true;
+  public void saveSnapshot() {
+    intSnapshotScreen = game.intScreenNumber;
+    intLastSnapshotTime = millis();
+    byte[] bytSnapshot = GameSnapshot.capture(game);
+    File snapshot = new File(sketchPath(strSnapshotPath));
+    snapshotWriter.execute(() -> {
+      try {
+        GameSnapshot.save(snapshot, bytSnapshot);
+      }
+      catch (IOException e) {
+        println("Could not save game: " + e.getMessage());
+      }
+    });
   }
-  
-  // ------------------------------PLAYER MOVEMENT & COLLISION METHODS-----------------------------
+  // -------------------------------------REPLAY METHODS------------------------------
   /**
-   * Player movement and sprite display
+   * Saves the input recording of the session when the sketch closes, named after its seed
    */
-  public void playerMovement(){
-    // initializng next player position variables
-    int intNextX, intNextY;
-    // player is moving up
-    if (isUpPressed && intPlayerY >= 0 + 40 && !isSwitchButtonDisplayed && !showPopup) {
-      intNextY = intPlayerY - 4;
-      // checks if player is colliding with an open elevator
-      if (!isCollidingElevator() || !isElevatorOpen) {
-        // restricts player from overlapping the desk hitbox
-        if (!isPlayerCollidingDesk(intPlayerX, intNextY)) {
-          // changes player character image and position
-          intPlayerY = intNextY;
-          currentPlayerState = playerBackward;
-        }
+  public void dispose() {
+    // writes a last snapshot and waits for it, so the run resumes from exactly where it was closed
+    if (snapshotWriter != null) {
+      saveSnapshot();
+      snapshotWriter.shutdown();
+      try {
+        snapshotWriter.awaitTermination(1, TimeUnit.SECONDS);
       }
-    }
-    // player is moving down
-    if (isDownPressed && intPlayerY <= height - 10 - 80 && !isSwitchButtonDisplayed && !showPopup) {
-      intNextY = intPlayerY + 4;
-      // checks if player is colliding with an open elevator
-      if (!isCollidingElevator() || !isElevatorOpen) {
-        // restricts player from overlapping the desk hitbox
-        if (!isPlayerCollidingDesk(intPlayerX, intNextY)) {
-          // changes player character image and position
-          intPlayerY = intNextY;
-          currentPlayerState = playerForward;
-        }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
       }
     }
-    // player is moving left
-    if (isLeftPressed && intPlayerX >= 0 + 10 && !isSwitchButtonDisplayed && !showPopup) {
-      intNextX = intPlayerX - 4;
-      // checks if player is colliding with an open elevator
-      if (!isCollidingElevator() || !isElevatorOpen) {
-        // restricts player from overlapping the desk hitbox
-        if (!isPlayerCollidingDesk(intNextX, intPlayerY)) {
-          // changes player character image and position
-          intPlayerX = intNextX;
-          currentPlayerState = playerLeft;
-        }
+    if (recorder != null) {
+      try {
+        recorder.save(new File(sketchPath(strReplayFolder + "/session-" + lngSessionSeed + ".nytr")), game.lngTicks);
       }
-    }
-    // player is moving right 
-    if (isRightPressed && intPlayerX <= width - 10 - 50 && !isSwitchButtonDisplayed && !showPopup) {
-      intNextX = intPlayerX + 4;
-      // checks if player is colliding with an open elevator
-      if (!isCollidingElevator() || !isElevatorOpen) {
-        // restricts player from overlapping the desk hitbox
-        if (!isPlayerCollidingDesk(intNextX, intPlayerY)) {
-          // changes player character image and position
-          intPlayerX = intNextX;
-          currentPlayerState = playerRight;
-        }
+      catch (IOException e) {
+        println("Could not save input recording: " + e.getMessage());
       }
     }
-    // displays player onto screen
-    image(currentPlayerState, intPlayerX, intPlayerY);
+    super.dispose();
   }
+  // ------------------------------PLAYER METHODS-----------------------------
   /**
-   * Checks if the player is colliding with the elevator in the image
-   * 
-   * @return true if colliding, false if not colliding
+   * Displays player onto screen, smoothed between its positions at the last two ticks
    */
-  public boolean isCollidingElevator(){
-    // Checks if player is colliding with elevator hitbox
-    if (intPlayerY <= 50 && intPlayerX < (width / 2) + 60 && intPlayerX > (width / 2) - 60) {
-      return true;
-    } 
-    else {
-      return false;
-    }
+  public void drawPlayer(){
+    float fltBlend = fltTickAccumulator / fltTickSeconds;
+    drawSprite(playerFacings[game.intFacing], lerp(game.intPrevPlayerX, game.intPlayerX, fltBlend) - intCameraX, lerp(game.intPrevPlayerY, game.intPlayerY, fltBlend) - intCameraY);
   }
   /**
-   * Checks if the player will collide with the desk
-   * 
-   * @param intX The next X-coordinate of the player
-   * @param intY The next Y-coordinate of the player
-   * @return true if the player will collide with the desk, false if the player isn't colliding with desk
+   * Moves the camera to follow the player, smoothed the same way as drawPlayer()
+   * Rounded to whole pixels so the background is never drawn blurred between pixels
    */
-  public boolean isPlayerCollidingDesk(int intX, int intY){
-    // compares the player position with the hitbox of the desk
-    if (intX < intDeskX + intDeskWidth && intX + 55 > intDeskX && intY < intDeskY + intDeskHeight && intY + 55 > intDeskY && (intScreenNumber == 1 || intScreenNumber == 4 || intScreenNumber == 6 || intScreenNumber == 8)){
-      isCollidingDesk = true;
-      return true;
-    }
-    else{
-      isCollidingDesk = false;
-      return false;
-    }
+  public void updateCamera(){
+    float fltBlend = fltTickAccumulator / fltTickSeconds;
+    intCameraX = round(game.getCameraX(lerp(game.intPrevPlayerX, game.intPlayerX, fltBlend)));
+    intCameraY = round(game.getCameraY(lerp(game.intPrevPlayerY, game.intPlayerY, fltBlend)));
   }
   
   // ------------------------------FADING OBJECT METHODS----------------------------------
   /**
    * Displays the exclamation marker at a given x and y coordinate and bobs up and down
-   * The exclamation mark also slowly fades into view from an initial transparent state
    * 
    * @param intX X-coordinate of the exclamation mark
    * @param initialY Initial Y-coordinate of the exclamation mark
    */
   public void displayExclamMark(float intX, float initialY){
-    // Slowly increases the opacity of the exclamation mark image
-    if (fltExclamAlpha < 255.0) {
-      fltExclamAlpha += fltFadeSpeed;
-    }
-    // Constrain alpha to not exceed 255
-    fltExclamAlpha = constrain((int) fltExclamAlpha, 0, 255);
-
-    // Apply the tint with the current alpha value
-    tint(255, fltExclamAlpha);
     float bobbingY = initialY + 20 * sin((float)(TWO_PI * 0.4 * millis() / 1000.0));
-    // draws exclamation mark
-    image(exclamationMark, intX, bobbingY);
-    // disables tint after use
-    noTint();
+    // draws the fully opaque exclamation mark straight from the atlas, or the pre-faded copy for the current alpha value
+    if (game.fltExclamAlpha >= 255) {
+      drawSprite(exclamationMark, intX, bobbingY);
+    }
+    else {
+      PImage fadedMark = exclamRamp[round(game.fltExclamAlpha / 255 * (intExclamRampSteps - 1))];
+      markDirty(intX, bobbingY, fadedMark.width, fadedMark.height);
+      image(fadedMark, intX, bobbingY);
+    }
   }
-  
   /**
-   * Upon player contact with an open elevator, 
-   * the whole screen will slowly fade to dark
-   * to transition to the next scene
+   * Precomputes copies of the exclamation mark at every step of its fade-in so it never needs tint() while fading
    */
-  public void fadeOutElevator(){
-    // Increases opacity of the black screen over time until it is completely opaque
-    if (fltElevatorAlpha < 255.0) {
-      fltElevatorAlpha += 3.2f;
-      fill(0, fltElevatorAlpha);
-      rect(0, 0, width, height);
-    }
-    else{
-      // Ensure the screen is fully black after 3 seconds
-      background(0); 
-      isScreenFaded = true;
+  public void buildExclamRamp(){
+    exclamRamp = new PImage[intExclamRampSteps];
+    PImage opaqueMark = spriteAtlas.get(exclamationMark.intX, exclamationMark.intY, exclamationMark.intW, exclamationMark.intH);
+    opaqueMark.loadPixels();
+    for (int i = 0; i < intExclamRampSteps; i++){
+      // scales the alpha channel of every pixel by how far through the fade this step is
+      int intKeep = i * 256 / (intExclamRampSteps - 1);
+      exclamRamp[i] = createImage(opaqueMark.width, opaqueMark.height, ARGB);
+      for (int j = 0; j < opaqueMark.pixels.length; j++){
+        int intAlpha = (opaqueMark.pixels[j] >>> 24) * intKeep >> 8;
+        exclamRamp[i].pixels[j] = (intAlpha << 24) | (opaqueMark.pixels[j] & 0xFFFFFF);
+      }
+      exclamRamp[i].updatePixels();
     }
   }
-
   /**
-   * When player falls off map in broken bridge
-   * Whole screen will fade to dark and bring the user back to the restart point
+   * Draws the screen as it was when the fade started, darkened by the given amount
+   * The first frame of a fade builds the snapshot from the cached background layer; each frame after that is composited
+   * from the snapshot across all cores
+   * 
+   * @param fltAlpha Opacity of the black overlay, from 0 to 255
+   */
+  public void drawFadeFrame(float fltAlpha){
+    // a snapshot left over from a fade on another screen is never reused, since some screens only fade on the way out
+    if (intFadeScreen != game.intScreenNumber){
+      captureFadeSource();
+      intFadeScreen = game.intScreenNumber;
+    }
+    int intKeep = 256 - (int) (constrain(fltAlpha, 0, 255) * 256 / 255);
+    ForkJoinPool.commonPool().invoke(new FadeRowsTask(0, height, intKeep));
+    fadeFrame.updatePixels();
+    image(fadeFrame, 0, 0);
+  }
+  /**
+   * Builds the fade snapshot from the cached background layer, copying in only the areas drawn over it this frame
+   * Falls back to reading the whole screen if there were too many of those areas to keep track of
    */
-  public void fallingOffMap(){
-    // Increases opacity of the black screen over time until it is completely opaque
-    if (fltFallingAlpha < 255.0) {
-      fltFallingAlpha += 3.2f;
-      fill(0, fltFallingAlpha);
-      rect(0, 0, width, height);
+  public void captureFadeSource(){
+    if (intDirtyCount == intMaxDirtyRects){
+      loadPixels();
+      arrayCopy(pixels, fadeSource);
+      return;
     }
-    else{
+    backgroundLayer.loadPixels();
+    arrayCopy(backgroundLayer.pixels, fadeSource);
+    for (int i = 0; i < intDirtyCount; i++){
+      int intX = intDirtyRects[i * 4];
+      int intY = intDirtyRects[i * 4 + 1];
+      int intW = intDirtyRects[i * 4 + 2];
+      int intH = intDirtyRects[i * 4 + 3];
+      if (intW <= 0 || intH <= 0){
+        continue;
+      }
+      // reads just this area of the screen
+      PImage area = get(intX, intY, intW, intH);
+      for (int intRow = 0; intRow < intH; intRow++){
+        arrayCopy(area.pixels, intRow * intW, fadeSource, (intY + intRow) * width + intX, intW);
+      }
+    }
+  }
+  /**
+   * Draws the fade to dark at its current opacity; the screen is fully black once the fade has finished
+   * 
+   * @param fltAlpha Opacity of the fade, where 0 means no fade has started
+   */
+  public void drawFade(float fltAlpha){
+    if (fltAlpha >= 255.0) {
       // Ensure the screen is fully black after 3 seconds
       background(0); 
-      isScreenFaded = true;
+    }
+    else if (fltAlpha > 0) {
+      drawFadeFrame(fltAlpha);
+    }
+    else {
+      // the next fade takes a fresh snapshot
+      intFadeScreen = -1;
     }
   }
+
   // -------------------------------IN GAME STOPWATCH--------------------------------------
   /**
    * Displays a clock of the time that has passed since the start of the game
    */
   public void displayElapsedTime() {
-    // Compares the current time passed in the game with the time of the game's start
-    int intCurrentTime = millis();
-    int intElapsedTime = intCurrentTime - intStartTime;
-  
-    // Calculates seconds, minutes and hours
-    int intSeconds = (intElapsedTime / 1000) % 60;
-    int intMinutes = (intElapsedTime / (1000 * 60)) % 60;
-    int intHours = (intElapsedTime / (1000 * 60 * 60)) % 24;
-  
-    // formats the time in digital clock display
-    strTime = nf(intHours, 2) + "h:" + nf(intMinutes, 2) + "m:" + nf(intSeconds, 2) + "s";
-  
     // initializes formatting of the string display
-    if (intScreenNumber == 5 || intScreenNumber == 1 || intScreenNumber == 7){
+    if (game.intScreenNumber == 5 || game.intScreenNumber == 1 || game.intScreenNumber == 7){
       fill(0); // Set the text color to black
     }
     else{
@@ -1473,120 +2168,14 @@ public class Sketch extends PApplet {
     textSize(20);
     textAlign(LEFT, TOP);
     // displays the time
-    if (intScreenNumber == 7){
-      text("Elapsed Time: ", 630, 380);
-      text(strTime, 630, 410);
+    if (game.intScreenNumber == 7){
+      drawTextRun("Elapsed Time: ", 630, 380);
+      drawTextRun(game.strTime, 630, 410);
     }
     else{
-      text("Elapsed Time: ", 10, 10);
-      text(strTime, 10, 30);
-    }
-  }
-  /**
-   * Adds the time that the player took to finish the game to the highscore list; will not show if it is not better than pre-existing scores
-   */
-  public void addTime(){
-    // Initializing variables
-    int intNewTime = parseTimeToSeconds(strTime);
-    int intNewPos = -1;
-
-    // Check every value in the list to see if the new time is smaller than the rest
-    for(int i = 0; i < 5; i++){
-      if (intNewTime < parseTimeToSeconds(strHighScores.get(i))){
-        // Adds to the ranking of where the new time will be on the leaderboard
-        intNewPos++;
-      }
-    }
-    // inputs the new time into the highscore list if the new time is smaller than the ones already existing
-    if(intNewPos > -1){
-      intNewPos = 4 - intNewPos;
-      strHighScores.add(intNewPos, strTime);
-      strHighScores.remove(5);
-      intHighScoreDifficulty.add(intNewPos, intWordleDifficulty);
-      intHighScoreDifficulty.remove(5);
-    }
-  }
-  /**
-   * Takes the string of time in the format 00h:00m:00s to an integer amount of seconds
-   */
-  public int parseTimeToSeconds(String strTimer){
-    // Initialization
-    String[] strCurrentTime = strTimer.split(":");
-
-    // Removing the "h", "m", or "s"
-    for (int i = 0; i < strCurrentTime.length; i++){
-      strCurrentTime[i] = strCurrentTime[i].substring(0, 2);
-    }
-
-    // Parse the split strings into integers
-    int intcurrentHours = Integer.parseInt(strCurrentTime[0]);
-    int intcurrentMinutes = Integer.parseInt(strCurrentTime[1]);
-    int intcurrentSeconds = Integer.parseInt(strCurrentTime[2]);
-
-    // Return total number of seconds
-    return intcurrentHours * 3600 + intcurrentMinutes * 60 + intcurrentSeconds;
-  }
-
-  /**
-   * Check which values of the high score list are the best in the respective difficulty and changes boolean to be displayed
-   */
-  public void checkIfBestInCategory(){
-    // Initialization
-    ArrayList<Integer> intIndexEasy = new ArrayList<>();
-    ArrayList<Integer> intIndexMed = new ArrayList<>();
-    ArrayList<Integer> intIndexHard = new ArrayList<>();
-    int intLowestEasy = 999999999;
-    int intLowestMed = 999999999;
-    int intLowestHard = 999999999;
-    int intBestEasy = -1;
-    int intBestMed = -1;
-    int intBestHard = -1;
-    // Sorting the times by difficulty
-    for(int i = 0; i < 5; i++){
-      if (intHighScoreDifficulty.get(i) == 0){
-        intIndexEasy.add(i);
-      }
-      else if (intHighScoreDifficulty.get(i) == 1){
-        intIndexMed.add(i);
-      }
-      else if (intHighScoreDifficulty.get(i) == 2){
-        intIndexHard.add(i);
-      }
-    }
-    // Finding the smallest time in the easy difficulty
-    for (int i = 0; i < intIndexEasy.size(); i++){
-      if(intLowestEasy > parseTimeToSeconds(strHighScores.get(intIndexEasy.get(i)))){
-        intLowestEasy = parseTimeToSeconds(strHighScores.get(intIndexEasy.get(i)));
-        intBestEasy = intIndexEasy.get(i);
-      }
-    }
-    // Finding the smallest time in the medium difficulty
-    for (int i = 0; i < intIndexMed.size(); i++){
-      if(intLowestMed > parseTimeToSeconds(strHighScores.get(intIndexMed.get(i)))){
-        intLowestMed = parseTimeToSeconds(strHighScores.get(intIndexMed.get(i)));
-        intBestMed = intIndexMed.get(i);
-      }
-    }
-    // Finding the smallest time in the hard difficulty
-    for (int i = 0; i < intIndexHard.size(); i++){
-      if(intLowestHard > parseTimeToSeconds(strHighScores.get(intIndexHard.get(i)))){
-        intLowestHard = parseTimeToSeconds(strHighScores.get(intIndexHard.get(i)));
-        intBestHard = intIndexHard.get(i);
-      }
-    }
-    // resetting the old data
-    for (int i = 0; i < 5; i++){
-      isBestInCategory[i] = false;
-    }
-    // assigning true to the shortest values of each respective difficulty
-    if (intBestEasy != -1){
-      isBestInCategory[intBestEasy] = true;
-    }
-    if (intBestMed != -1){
-      isBestInCategory[intBestMed] = true;
-    }
-    if (intBestHard != -1){
-      isBestInCategory[intBestHard] = true;
+      markDirty(10, 10, 160, 48);
+      drawTextRun("Elapsed Time: ", 10, 10);
+      drawTextRun(game.strTime, 10, 30);
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,287 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+* The program SpatialGrid.java indexes the colliders and trigger zones of one screen in a uniform grid
+* so a lookup only looks at the objects in the cells it touches, however many objects the screen has
+*
+* Colliders are built from the screen's CollisionMask. Every connected patch of a zone is one object (one desk, one door),
+* split into rectangles that are in the mask's player-position space: a rectangle holds every position of the player's
+* top-left corner at which the player touches the object, so the player's box is already accounted for and the player
+* itself can be queried as a point, or as the line it moves along.
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class SpatialGrid {
+
+  // This class is one rectangle of a collider or trigger zone
+  static class Collider {
+    // Initializing class specific variables
+    int intZone; // one of the CollisionMask.ZONE_ constants
+    int intObject; // which patch of the zone the rectangle belongs to, counting from 0 in reading order
+    int intX, intY, intW, intH;
+    /**
+     * Computes input zone, object and rectangle values and localizes in terms of the class
+     *
+     * @param intZone Zone of the rectangle
+     * @param intObject Patch of the zone the rectangle belongs to
+     * @param intX Left edge of the rectangle
+     * @param intY Top edge of the rectangle
+     * @param intW Width of the rectangle
+     * @param intH Height of the rectangle
+     */
+    Collider(int intZone, int intObject, int intX, int intY, int intW, int intH) {
+      this.intZone = intZone;
+      this.intObject = intObject;
+      this.intX = intX;
+      this.intY = intY;
+      this.intW = intW;
+      this.intH = intH;
+    }
+    /**
+     * Checks if a player position is inside the rectangle
+     *
+     * @param intPointX X-coordinate of the player
+     * @param intPointY Y-coordinate of the player
+     * @return true if the position is inside, false otherwise
+     */
+    boolean contains(int intPointX, int intPointY) {
+      return intPointX >= intX && intPointX < intX + intW && intPointY >= intY && intPointY < intY + intH;
+    }
+  }
+
+  // This class holds the result of a sweep; each game keeps its own since grids are shared between games
+  static class Hit {
+    // Initializing class specific variables
+    float fltTime; // how far along the move the first hit happened, from 0 to 1, or 1 if nothing was hit
+    boolean isAlongX; // true if the left or right side of the rectangle was hit, false if the top or bottom
+    Collider collider; // the rectangle hit, or null if nothing was hit
+  }
+
+  // INITIALIZING GRID VARIABLES
+  static final int intCellSize = 64;
+  int intColumns, intRows;
+  Collider[] colliders;
+  int[] intCellStart; // colliders of cell i are intCellItems[intCellStart[i]] up to intCellItems[intCellStart[i + 1]]
+  int[] intCellItems;
+  int[] intObjectCounts = new int[CollisionMask.intZoneColours.length];
+
+  /**
+   * Builds the grid of a screen from its collision mask
+   * Each connected patch of a zone becomes one object, and each object is covered by as few rectangles as a greedy scan finds
+   *
+   * @param mask The screen's collision mask
+   */
+  public SpatialGrid(CollisionMask mask) {
+    int intCells = mask.intColumns * mask.intRows;
+    // Labels every painted cell with its zone and the patch of the zone it belongs to
+    int[] intCellZone = new int[intCells];
+    int[] intCellObject = new int[intCells];
+    Arrays.fill(intCellZone, CollisionMask.ZONE_NONE);
+    for (int intZone = 0; intZone < mask.lngZones.length; intZone++) {
+      long[] lngBits = mask.lngZones[intZone];
+      for (int i = 0; lngBits != null && i < intCells; i++) {
+        if ((lngBits[i >>> 6] & 1L << i) != 0) {
+          intCellZone[i] = intZone;
+        }
+      }
+    }
+    int[] intStack = new int[intCells];
+    boolean[] isLabelled = new boolean[intCells];
+    for (int i = 0; i < intCells; i++) {
+      if (intCellZone[i] == CollisionMask.ZONE_NONE || isLabelled[i]) {
+        continue;
+      }
+      // flood fills the patch this cell starts
+      int intZone = intCellZone[i];
+      int intObject = intObjectCounts[intZone]++;
+      int intTop = 0;
+      intStack[intTop++] = i;
+      isLabelled[i] = true;
+      while (intTop > 0) {
+        int intCell = intStack[--intTop];
+        intCellObject[intCell] = intObject;
+        int intColumn = intCell % mask.intColumns;
+        int[] intNeighbours = {
+          intColumn > 0 ? intCell - 1 : -1, intColumn < mask.intColumns - 1 ? intCell + 1 : -1,
+          intCell - mask.intColumns, intCell + mask.intColumns
+        };
+        for (int intNext : intNeighbours) {
+          if (intNext >= 0 && intNext < intCells && !isLabelled[intNext] && intCellZone[intNext] == intZone) {
+            isLabelled[intNext] = true;
+            intStack[intTop++] = intNext;
+          }
+        }
+      }
+    }
+
+    // Covers each patch with rectangles: a run along the row, grown downwards while the rows below match it
+    ArrayList<Collider> found = new ArrayList<>();
+    boolean[] isCovered = new boolean[intCells];
+    for (int i = 0; i < intCells; i++) {
+      if (intCellZone[i] == CollisionMask.ZONE_NONE || isCovered[i]) {
+        continue;
+      }
+      int intColumn = i % mask.intColumns;
+      int intRow = i / mask.intColumns;
+      int intWidth = 1;
+      while (intColumn + intWidth < mask.intColumns && isSamePatch(intCellZone, intCellObject, isCovered, i, i + intWidth)) {
+        intWidth++;
+      }
+      int intHeight = 1;
+      growing:
+      while (intRow + intHeight < mask.intRows) {
+        int intRowStart = i + intHeight * mask.intColumns;
+        for (int j = 0; j < intWidth; j++) {
+          if (!isSamePatch(intCellZone, intCellObject, isCovered, i, intRowStart + j)) {
+            break growing;
+          }
+        }
+        intHeight++;
+      }
+      for (int y = 0; y < intHeight; y++) {
+        Arrays.fill(isCovered, i + y * mask.intColumns, i + y * mask.intColumns + intWidth, true);
+      }
+      int intSize = CollisionMask.intCellSize;
+      found.add(new Collider(intCellZone[i], intCellObject[i], intColumn * intSize, intRow * intSize, intWidth * intSize, intHeight * intSize));
+    }
+    colliders = found.toArray(new Collider[0]);
+
+    // Files every rectangle under each grid cell it overlaps
+    intColumns = (mask.intColumns * CollisionMask.intCellSize + intCellSize - 1) / intCellSize;
+    intRows = (mask.intRows * CollisionMask.intCellSize + intCellSize - 1) / intCellSize;
+    intCellStart = new int[intColumns * intRows + 1];
+    for (Collider collider : colliders) {
+      forEachCell(collider, intCell -> intCellStart[intCell + 1]++);
+    }
+    for (int i = 0; i < intColumns * intRows; i++) {
+      intCellStart[i + 1] += intCellStart[i];
+    }
+    intCellItems = new int[intCellStart[intColumns * intRows]];
+    int[] intFilled = Arrays.copyOf(intCellStart, intColumns * intRows);
+    for (int i = 0; i < colliders.length; i++) {
+      int intIndex = i;
+      forEachCell(colliders[i], intCell -> intCellItems[intFilled[intCell]++] = intIndex);
+    }
+  }
+  /**
+   * Checks if a cell can join the rectangle being grown: same zone and patch, and not covered by another rectangle yet
+   *
+   * @param intCellZone Zone of each cell
+   * @param intCellObject Patch of each cell
+   * @param isCovered Cells already covered by a rectangle
+   * @param intStart The first cell of the rectangle
+   * @param intCell The cell to check
+   * @return true if the cell can join, false otherwise
+   */
+  static boolean isSamePatch(int[] intCellZone, int[] intCellObject, boolean[] isCovered, int intStart, int intCell) {
+    return !isCovered[intCell] && intCellZone[intCell] == intCellZone[intStart] && intCellObject[intCell] == intCellObject[intStart];
+  }
+  /**
+   * Runs an action for every grid cell a rectangle overlaps
+   *
+   * @param collider The rectangle
+   * @param action What to do with the index of each cell
+   */
+  void forEachCell(Collider collider, IntConsumer action) {
+    int intLastColumn = (collider.intX + collider.intW - 1) / intCellSize;
+    int intLastRow = (collider.intY + collider.intH - 1) / intCellSize;
+    for (int intRow = collider.intY / intCellSize; intRow <= intLastRow; intRow++) {
+      for (int intColumn = collider.intX / intCellSize; intColumn <= intLastColumn; intColumn++) {
+        action.accept(intRow * intColumns + intColumn);
+      }
+    }
+  }
+  /**
+   * Finds the rectangle of a zone that a player position is in, looking only at the one grid cell holding the position
+   *
+   * @param intZone The zone, one of the CollisionMask.ZONE_ constants
+   * @param intX X-coordinate of the player
+   * @param intY Y-coordinate of the player
+   * @return the rectangle, or null if the position is in no rectangle of the zone
+   */
+  public Collider find(int intZone, int intX, int intY) {
+    if (intX < 0 || intY < 0 || intX >= intColumns * intCellSize || intY >= intRows * intCellSize) {
+      return null;
+    }
+    int intCell = intY / intCellSize * intColumns + intX / intCellSize;
+    for (int i = intCellStart[intCell]; i < intCellStart[intCell + 1]; i++) {
+      Collider collider = colliders[intCellItems[i]];
+      if (collider.intZone == intZone && collider.contains(intX, intY)) {
+        return collider;
+      }
+    }
+    return null;
+  }
+  /**
+   * Sweeps a player position along a move and finds the first rectangle of the given zones the player runs into
+   * A rectangle blocks the integer positions inside it, so the player may stop one pixel short of it on any side
+   * Rectangles the player already starts inside are ignored so the player can always walk out of them
+   *
+   * @param intX X-coordinate the player starts at
+   * @param intY Y-coordinate the player starts at
+   * @param intDx Distance moved along x
+   * @param intDy Distance moved along y
+   * @param intZones The zones to look for, as a set of 1 << zone bits
+   * @param hit Filled with the first hit, or with no collider if the whole move is clear
+   */
+  public void sweep(int intX, int intY, int intDx, int intDy, int intZones, Hit hit) {
+    hit.fltTime = 1;
+    hit.collider = null;
+    // a rectangle can be entered from up to a pixel outside its cells, so the search area is grown by one
+    int intFirstColumn = Math.max(0, (Math.min(intX, intX + intDx) - 1) / intCellSize);
+    int intFirstRow = Math.max(0, (Math.min(intY, intY + intDy) - 1) / intCellSize);
+    int intLastColumn = Math.min(intColumns - 1, (Math.max(intX, intX + intDx) + 1) / intCellSize);
+    int intLastRow = Math.min(intRows - 1, (Math.max(intY, intY + intDy) + 1) / intCellSize);
+    for (int intRow = intFirstRow; intRow <= intLastRow; intRow++) {
+      for (int intColumn = intFirstColumn; intColumn <= intLastColumn; intColumn++) {
+        int intCell = intRow * intColumns + intColumn;
+        for (int i = intCellStart[intCell]; i < intCellStart[intCell + 1]; i++) {
+          Collider collider = colliders[intCellItems[i]];
+          if ((intZones >> collider.intZone & 1) == 0) {
+            continue;
+          }
+          // the player is inside the rectangle while strictly between one pixel before it and its far edge on both axes
+          float fltEntryX, fltExitX, fltEntryY, fltExitY;
+          if (intDx == 0) {
+            if (intX <= collider.intX - 1 || intX >= collider.intX + collider.intW) {
+              continue;
+            }
+            fltEntryX = Float.NEGATIVE_INFINITY;
+            fltExitX = Float.POSITIVE_INFINITY;
+          }
+          else {
+            float fltNear = (float) ((intDx > 0 ? collider.intX - 1 : collider.intX + collider.intW) - intX) / intDx;
+            float fltFar = (float) ((intDx > 0 ? collider.intX + collider.intW : collider.intX - 1) - intX) / intDx;
+            fltEntryX = fltNear;
+            fltExitX = fltFar;
+          }
+          if (intDy == 0) {
+            if (intY <= collider.intY - 1 || intY >= collider.intY + collider.intH) {
+              continue;
+            }
+            fltEntryY = Float.NEGATIVE_INFINITY;
+            fltExitY = Float.POSITIVE_INFINITY;
+          }
+          else {
+            float fltNear = (float) ((intDy > 0 ? collider.intY - 1 : collider.intY + collider.intH) - intY) / intDy;
+            float fltFar = (float) ((intDy > 0 ? collider.intY + collider.intH : collider.intY - 1) - intY) / intDy;
+            fltEntryY = fltNear;
+            fltExitY = fltFar;
+          }
+          float fltEntry = Math.max(fltEntryX, fltEntryY);
+          float fltExit = Math.min(fltExitX, fltExitY);
+          // keeps the earliest hit that happens during this move, from outside the rectangle
+          if (fltEntry >= 0 && fltEntry < fltExit && fltEntry < hit.fltTime) {
+            hit.fltTime = fltEntry;
+            hit.isAlongX = fltEntryX >= fltEntryY;
+            hit.collider = collider;
+          }
+        }
+      }
+    }
+  }
+}
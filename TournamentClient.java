@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+/**
+* The program TournamentClient.java stands in for the players of a tournament so TournamentHost.java can be load tested
+* It opens a number of sessions to a host and has a bot in each walk around and click like a player would
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class TournamentClient {
+
+  // INITIALIZING BOT VARIABLES
+  static final int[] intArrowKeys = {GameCore.UP, GameCore.DOWN, GameCore.LEFT, GameCore.RIGHT};
+  static final int intFrameBytes = 9;
+  static final int intRoundMillis = 50; // each bot acts 20 times a second, about as fast as a quick player
+
+  /**
+   * Adds an input event frame in the host's protocol to a buffer
+   *
+   * @param buffer The buffer to write to
+   * @param intType Type of the event, one of the GameCore.EVENT_ constants
+   * @param intA First value of the event
+   * @param intB Second value of the event
+   */
+  static void putFrame(ByteBuffer buffer, int intType, int intA, int intB) {
+    buffer.put((byte) intType);
+    buffer.putInt(intA);
+    buffer.putInt(intB);
+  }
+  /**
+   * Picks the next thing a bot does: holding or letting go of an arrow key, clicking somewhere, or typing a letter
+   *
+   * @param buffer The buffer to write the bot's events to
+   * @param rng The bot's random number generator
+   * @param isHeld Which arrow keys the bot is holding, updated by this method
+   */
+  static void nextMove(ByteBuffer buffer, Random rng, boolean[] isHeld) {
+    int intChoice = rng.nextInt(10);
+    if (intChoice < 6) {
+      int intArrow = rng.nextInt(4);
+      putFrame(buffer, isHeld[intArrow] ? GameCore.EVENT_KEY_RELEASED : GameCore.EVENT_KEY_PRESSED, isHeld[intArrow] ? intArrowKeys[intArrow] : 0, isHeld[intArrow] ? 0 : intArrowKeys[intArrow]);
+      isHeld[intArrow] = !isHeld[intArrow];
+    }
+    else if (intChoice < 8) {
+      putFrame(buffer, GameCore.EVENT_MOUSE_PRESSED, rng.nextInt(800), rng.nextInt(600));
+    }
+    else {
+      putFrame(buffer, GameCore.EVENT_KEY_PRESSED, 'a' + rng.nextInt(26), 0);
+    }
+  }
+  /**
+   * Opens the sessions and drives them until the time is up
+   *
+   * @param args Optional host (default 127.0.0.1), port (default 7373), number of sessions (default 200) and seconds to run (default 30)
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    String strHost = args.length > 0 ? args[0] : "127.0.0.1";
+    int intPort = args.length > 1 ? Integer.parseInt(args[1]) : 7373;
+    int intSessions = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+    int intSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+    SocketChannel[] channels = new SocketChannel[intSessions];
+    Random[] rngs = new Random[intSessions];
+    boolean[][] isHeld = new boolean[intSessions][4];
+    for (int i = 0; i < intSessions; i++) {
+      channels[i] = SocketChannel.open(new InetSocketAddress(strHost, intPort));
+      channels[i].socket().setTcpNoDelay(true);
+      rngs[i] = new Random(i);
+    }
+    System.out.println(intSessions + " sessions connected to " + strHost + ":" + intPort);
+
+    ByteBuffer buffer = ByteBuffer.allocate(intFrameBytes * 2);
+    long lngEnd = System.currentTimeMillis() + intSeconds * 1000L;
+    long lngFrames = 0;
+    while (System.currentTimeMillis() < lngEnd) {
+      long lngRoundStart = System.currentTimeMillis();
+      for (int i = 0; i < intSessions; i++) {
+        buffer.clear();
+        nextMove(buffer, rngs[i], isHeld[i]);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          channels[i].write(buffer);
+        }
+        lngFrames++;
+      }
+      Thread.sleep(Math.max(0, intRoundMillis - (System.currentTimeMillis() - lngRoundStart)));
+    }
+    for (SocketChannel channel : channels) {
+      channel.close();
+    }
+    System.out.println("sent " + lngFrames + " events in " + intSeconds + " s");
+  }
+}
@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+* The program TournamentHost.java runs many headless games at once in one JVM for speedrun events
+* Every connection to the host's local TCP port is one session with its own GameCore, driven by the input the connection sends
+*
+* Sessions are not given a thread each. One selector thread reads every socket and queues the events into each session's
+* InputQueue, and one worker per core ticks its share of the sessions 120 times a second. Sessions only hold game state,
+* so hundreds of them cost a few hundred kilobytes and no threads, and the puzzle tables are shared by all of them.
+*
+* Protocol: the client sends 9-byte frames of an event type byte followed by the two event values as big-endian ints,
+* using the GameCore.EVENT_ types; the host sends nothing back
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class TournamentHost {
+
+  // This class is one player's game and the connection driving it
+  static class Session {
+    // Initializing class specific variables
+    int intId;
+    GameCore game;
+    InputQueue inputQueue;
+    SocketChannel channel;
+    SelectionKey key; // set once the connection is registered with the selector
+    ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+    volatile boolean isClosed = false;
+    // tick timings, only written by the one shard ticking the session and read by the report on another thread
+    volatile long lngTicks = 0;
+    volatile long lngTotalTickNanos = 0;
+    volatile long lngMaxTickNanos = 0;
+    /**
+     * Creates a session on the intro screen
+     *
+     * @param intId Number of the session, also used to derive its seed
+     * @param game The session's game
+     * @param inputQueue The queue the selector thread fills and the game drains
+     * @param channel The connection driving the session
+     */
+    Session(int intId, GameCore game, InputQueue inputQueue, SocketChannel channel) {
+      this.intId = intId;
+      this.game = game;
+      this.inputQueue = inputQueue;
+      this.channel = channel;
+    }
+  }
+
+  // This class is the share of the sessions ticked by one worker
+  class Shard implements Runnable {
+    // Initializing class specific variables
+    CopyOnWriteArrayList<Session> sessions = new CopyOnWriteArrayList<>(); // joins are rare, ticks are constant
+    volatile long lngLateRounds = 0; // rounds that took longer than a tick; only written by the shard, whose rounds never overlap
+    /**
+     * Ticks every session of the shard once and records how long each tick took
+     */
+    public void run() {
+      long lngRoundStart = System.nanoTime();
+      for (Session session : sessions) {
+        if (session.isClosed) {
+          sessions.remove(session);
+          continue;
+        }
+        long lngStart = System.nanoTime();
+        try {
+          session.game.tick();
+        }
+        catch (RuntimeException e) {
+          // a broken game only ends its own session, so the rest of the shard keeps ticking
+          System.out.println("session " + session.intId + " stopped: tick threw " + e);
+          e.printStackTrace();
+          close(session.key, session);
+          sessions.remove(session);
+          continue;
+        }
+        long lngNanos = System.nanoTime() - lngStart;
+        session.lngTicks++;
+        session.lngTotalTickNanos += lngNanos;
+        session.lngMaxTickNanos = Math.max(session.lngMaxTickNanos, lngNanos);
+        latencyBuckets.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, lngNanos)));
+      }
+      if (System.nanoTime() - lngRoundStart > lngTickNanos) {
+        lngLateRounds++;
+      }
+    }
+  }
+
+  // INITIALIZING HOST VARIABLES
+  int intPort;
+  long lngSeed; // session seeds are derived from this, so any session can be reproduced from the host seed and its number
+  int intWorkers = Runtime.getRuntime().availableProcessors();
+  int intTickRate = 120;
+  long lngTickNanos = 1_000_000_000L / intTickRate;
+  int intFrameBytes = 9;
+  int intInputQueueSize = 256;
+  int intReportSeconds = 5;
+  long lngStartNanos = System.nanoTime();
+  Shard[] shards;
+  ScheduledExecutorService workers;
+  int intNextSessionId = 0;
+
+  // INITIALIZING METRIC VARIABLES
+  AtomicLongArray latencyBuckets = new AtomicLongArray(64); // tick count by the power of two of its nanoseconds
+  long lngReportedTicks = 0;
+  long lngReportedNanos = 0;
+
+  /**
+   * Creates a host that has not started listening yet
+   *
+   * @param intPort Local port to accept sessions on
+   * @param lngSeed Seed the session seeds are derived from
+   */
+  public TournamentHost(int intPort, long lngSeed) {
+    this.intPort = intPort;
+    this.lngSeed = lngSeed;
+  }
+  /**
+   * Gives the time since the host started; every session's in-game clock reads from it
+   *
+   * @return milliseconds since the host started
+   */
+  int clockMillis() {
+    return (int) ((System.nanoTime() - lngStartNanos) / 1_000_000);
+  }
+  /**
+   * Starts the tick workers and the metrics report, then accepts and reads connections on this thread until it is interrupted
+   */
+  public void run() throws IOException {
+    workers = Executors.newScheduledThreadPool(intWorkers + 1, task -> {
+      Thread thread = new Thread(task, "tournament-worker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    shards = new Shard[intWorkers];
+    for (int i = 0; i < intWorkers; i++) {
+      shards[i] = new Shard();
+      // staggers the shards across the tick so they do not all wake at once
+      workers.scheduleAtFixedRate(shards[i], lngTickNanos * i / intWorkers, lngTickNanos, TimeUnit.NANOSECONDS);
+    }
+    workers.scheduleAtFixedRate(this::report, intReportSeconds, intReportSeconds, TimeUnit.SECONDS);
+
+    try (Selector selector = Selector.open(); ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.bind(new InetSocketAddress("127.0.0.1", intPort));
+      server.configureBlocking(false);
+      server.register(selector, SelectionKey.OP_ACCEPT);
+      System.out.println("tournament host on port " + intPort + " with " + intWorkers + " tick workers, seed " + lngSeed);
+      while (!Thread.currentThread().isInterrupted()) {
+        selector.select();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept(server, selector);
+          }
+          else if (key.isReadable()) {
+            read(key);
+          }
+        }
+      }
+    }
+    finally {
+      workers.shutdownNow();
+    }
+  }
+  /**
+   * Starts a session for a new connection on the shard with the fewest sessions
+   *
+   * @param server The listening socket
+   * @param selector The selector the connection's reads are registered with
+   */
+  void accept(ServerSocketChannel server, Selector selector) throws IOException {
+    SocketChannel channel = server.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    channel.socket().setTcpNoDelay(true);
+    int intId = intNextSessionId++;
+    InputQueue inputQueue = new InputQueue(intInputQueueSize);
+    GameCore game = new GameCore(this::clockMillis, new Random(lngSeed + intId), inputQueue);
+    Session session = new Session(intId, game, inputQueue, channel);
+    session.key = channel.register(selector, SelectionKey.OP_READ, session);
+    Shard smallest = shards[0];
+    for (Shard shard : shards) {
+      if (shard.sessions.size() < smallest.sessions.size()) {
+        smallest = shard;
+      }
+    }
+    smallest.sessions.add(session);
+  }
+  /**
+   * Reads whatever a connection has sent and queues every complete frame as an input event for the session's next tick
+   * This thread is the only producer of every session's input queue
+   *
+   * @param key The selection key of the connection
+   */
+  void read(SelectionKey key) {
+    Session session = (Session) key.attachment();
+    int intRead;
+    try {
+      intRead = session.channel.read(session.readBuffer);
+    }
+    catch (IOException e) {
+      intRead = -1;
+    }
+    if (intRead == -1) {
+      close(key, session);
+      return;
+    }
+    ByteBuffer buffer = session.readBuffer;
+    buffer.flip();
+    int intNow = clockMillis();
+    while (buffer.remaining() >= intFrameBytes) {
+      int intType = buffer.get();
+      int intA = buffer.getInt();
+      int intB = buffer.getInt();
+      // the start gate is the host's to control, so clients can only send key and mouse events and the camera of their clicks
+      if (intType == GameCore.EVENT_KEY_PRESSED || intType == GameCore.EVENT_KEY_RELEASED || intType == GameCore.EVENT_MOUSE_PRESSED || intType == GameCore.EVENT_CLICK_CAMERA) {
+        session.inputQueue.offer(intType, intA, intB, intNow);
+      }
+    }
+    buffer.compact();
+  }
+  /**
+   * Ends a session when its connection closes or its game fails; safe to call from a tick worker
+   *
+   * @param key The selection key of the connection
+   * @param session The session to end
+   */
+  void close(SelectionKey key, Session session) {
+    key.cancel();
+    try {
+      session.channel.close();
+    }
+    catch (IOException e) {
+      // the connection is already gone
+    }
+    session.isClosed = true;
+  }
+  /**
+   * Prints the tick throughput, the tick latency percentiles and the slowest sessions since the last report
+   */
+  void report() {
+    long[] lngCounts = new long[64];
+    long lngTicks = 0;
+    for (int i = 0; i < 64; i++) {
+      lngCounts[i] = latencyBuckets.get(i);
+      lngTicks += lngCounts[i];
+    }
+    ArrayList<Session> sessions = new ArrayList<>();
+    long lngLate = 0;
+    long lngTickNanosTotal = 0;
+    for (Shard shard : shards) {
+      sessions.addAll(shard.sessions);
+      lngLate += shard.lngLateRounds;
+    }
+    for (Session session : sessions) {
+      lngTickNanosTotal += session.lngTotalTickNanos;
+    }
+    long lngNow = System.nanoTime();
+    double dblSeconds = (lngNow - (lngReportedNanos == 0 ? lngStartNanos : lngReportedNanos)) / 1e9;
+    double dblTicksPerSecond = (lngTicks - lngReportedTicks) / dblSeconds;
+    lngReportedTicks = lngTicks;
+    lngReportedNanos = lngNow;
+    System.out.println(sessions.size() + " sessions, " + Math.round(dblTicksPerSecond) + " ticks/s, tick p50 " + percentileNanos(lngCounts, lngTicks, 0.5) + " ns, p99 " + percentileNanos(lngCounts, lngTicks, 0.99) + " ns, p99.9 " + percentileNanos(lngCounts, lngTicks, 0.999) + " ns, " + lngLate + " late rounds");
+    if (lngTicks > 0 && lngTickNanosTotal > 0) {
+      // how many sessions one core could tick at 120 Hz if it did nothing else, from the average tick cost so far
+      double dblAverageNanos = (double) lngTickNanosTotal / Math.max(1, sumTicks(sessions));
+      System.out.println("  average tick " + Math.round(dblAverageNanos) + " ns, about " + Math.round(1e9 / dblAverageNanos / intTickRate) + " sessions per core");
+    }
+    // lists the sessions with the slowest single tick, sorted on a copy since the workers keep updating the real values
+    HashMap<Session, Long> maxTickNanos = new HashMap<>();
+    for (Session session : sessions) {
+      maxTickNanos.put(session, session.lngMaxTickNanos);
+    }
+    sessions.sort((a, b) -> Long.compare(maxTickNanos.get(b), maxTickNanos.get(a)));
+    for (int i = 0; i < Math.min(3, sessions.size()); i++) {
+      Session session = sessions.get(i);
+      long lngSessionTicks = session.lngTicks;
+      long lngSessionNanos = session.lngTotalTickNanos;
+      System.out.println("  session " + session.intId + ": screen " + session.game.intScreenNumber + ", " + lngSessionTicks + " ticks, mean " + lngSessionNanos / Math.max(1, lngSessionTicks) + " ns, max " + maxTickNanos.get(session) + " ns");
+    }
+  }
+  /**
+   * Adds up the ticks run by a list of sessions
+   *
+   * @param sessions The sessions
+   * @return the total number of ticks
+   */
+  static long sumTicks(ArrayList<Session> sessions) {
+    long lngTotal = 0;
+    for (Session session : sessions) {
+      lngTotal += session.lngTicks;
+    }
+    return lngTotal;
+  }
+  /**
+   * Finds the upper bound of the histogram bucket a percentile falls in
+   *
+   * @param lngCounts Tick count by the power of two of its nanoseconds
+   * @param lngTotal Total ticks in the histogram
+   * @param dblPercentile The percentile, from 0 to 1
+   * @return nanoseconds the given share of ticks finished within
+   */
+  static long percentileNanos(long[] lngCounts, long lngTotal, double dblPercentile) {
+    long lngTarget = (long) Math.ceil(lngTotal * dblPercentile);
+    long lngSeen = 0;
+    for (int i = 0; i < lngCounts.length; i++) {
+      lngSeen += lngCounts[i];
+      if (lngSeen >= lngTarget && lngSeen > 0) {
+        return 2L << i;
+      }
+    }
+    return 0;
+  }
+  /**
+   * Starts a host
+   *
+   * @param args Optional port (default 7373) and host seed (default random)
+   */
+  public static void main(String[] args) throws IOException {
+    int intPort = args.length > 0 ? Integer.parseInt(args[0]) : 7373;
+    long lngSeed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+    new TournamentHost(intPort, lngSeed).run();
+  }
+}
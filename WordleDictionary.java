@@ -0,0 +1,185 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+* The program WordleDictionary.java holds every word that is accepted as a Wordle guess
+*
+* Each word is packed into one int, 5 bits per letter with the first letter highest, so sorting the ints sorts the words
+* alphabetically and a guess is looked up with a binary search over a plain int[] without building any strings.
+* The list is kept as text, one word per line, and packed into a .bin file next to it the first time it is read after
+* changing; later launches memory-map the .bin and copy it straight into the array.
+*
+* @author: E. Fung
+* @author: J. Mui
+*/
+
+public class WordleDictionary {
+
+  // CACHE FORMAT CONSTANTS
+  static final int MAGIC = 0x4E595744; // "NYWD"
+  static final int VERSION = 1;
+  static final int intHeaderBytes = 12;
+
+  // INITIALIZING DICTIONARY VARIABLES
+  static final int intWordLength = 5;
+  int[] intWords; // packed words in ascending order, without repeats
+
+  /**
+   * Computes input words and localizes in terms of the class
+   *
+   * @param intWords Packed words in ascending order, without repeats
+   */
+  public WordleDictionary(int[] intWords) {
+    this.intWords = intWords;
+  }
+  /**
+   * Packs a word into an int, 5 bits per letter with the first letter in the highest bits
+   *
+   * @param str The word, in upper or lower case
+   * @return the packed word, or -1 if it is not five letters from A to Z
+   */
+  public static int pack(CharSequence str) {
+    if (str == null || str.length() != intWordLength) {
+      return -1;
+    }
+    int intPacked = 0;
+    for (int i = 0; i < intWordLength; i++) {
+      int intLetter = Character.toUpperCase(str.charAt(i)) - 'A';
+      if (intLetter < 0 || intLetter >= 26) {
+        return -1;
+      }
+      intPacked = intPacked << 5 | intLetter;
+    }
+    return intPacked;
+  }
+  /**
+   * Checks if a word is in the dictionary
+   *
+   * @param str The word, in upper or lower case
+   * @return true if the word is a valid guess, false otherwise
+   */
+  public boolean contains(CharSequence str) {
+    int intPacked = pack(str);
+    return intPacked >= 0 && Arrays.binarySearch(intWords, intPacked) >= 0;
+  }
+  /**
+   * Gives the number of words in the dictionary
+   *
+   * @return the number of words
+   */
+  public int size() {
+    return intWords.length;
+  }
+  /**
+   * Loads a word list, from its packed cache if the cache is newer than the list
+   *
+   * @param strPath Path of the word list
+   * @return the dictionary
+   */
+  public static WordleDictionary load(String strPath) throws IOException {
+    File list = new File(strPath);
+    File cache = new File(strPath.replaceFirst("\\.txt$", "") + ".bin");
+    if (cache.exists() && cache.lastModified() >= list.lastModified()) {
+      try {
+        return readCache(cache);
+      }
+      catch (IOException e) {
+        // a broken cache is rebuilt from the list below
+      }
+    }
+    WordleDictionary dictionary = fromList(list);
+    try {
+      dictionary.writeCache(cache);
+    }
+    catch (IOException e) {
+      System.out.println("Could not write Wordle dictionary cache: " + e.getMessage());
+    }
+    return dictionary;
+  }
+  /**
+   * Packs and sorts a word list
+   *
+   * @param list The word list, one word per line; blank lines and lines starting with # are skipped
+   * @return the dictionary
+   */
+  static WordleDictionary fromList(File list) throws IOException {
+    List<String> strLines = Files.readAllLines(list.toPath());
+    int[] intWords = new int[strLines.size()];
+    int intCount = 0;
+    for (int i = 0; i < strLines.size(); i++) {
+      String strLine = strLines.get(i).trim();
+      if (strLine.isEmpty() || strLine.startsWith("#")) {
+        continue;
+      }
+      int intPacked = pack(strLine);
+      if (intPacked < 0) {
+        throw new IOException(list + " line " + (i + 1) + " is not a five-letter word: " + strLine);
+      }
+      intWords[intCount++] = intPacked;
+    }
+    Arrays.sort(intWords, 0, intCount);
+    // drops repeated words so every word is in the array once
+    int intUnique = 0;
+    for (int i = 0; i < intCount; i++) {
+      if (intUnique == 0 || intWords[i] != intWords[intUnique - 1]) {
+        intWords[intUnique++] = intWords[i];
+      }
+    }
+    return new WordleDictionary(Arrays.copyOf(intWords, intUnique));
+  }
+  /**
+   * Memory-maps a cache written by writeCache() and copies the packed words out of it
+   *
+   * @param cache The cache file
+   * @return the dictionary
+   */
+  static WordleDictionary readCache(File cache) throws IOException {
+    try (FileChannel channel = FileChannel.open(cache.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() < intHeaderBytes) {
+        throw new IOException("truncated Wordle dictionary cache");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException("stale Wordle dictionary cache");
+      }
+      int intCount = buffer.getInt();
+      if (intCount < 0 || channel.size() != intHeaderBytes + (long) intCount * 4) {
+        throw new IOException("truncated Wordle dictionary cache");
+      }
+      int[] intWords = new int[intCount];
+      IntBuffer words = buffer.asIntBuffer();
+      words.get(intWords);
+      return new WordleDictionary(intWords);
+    }
+  }
+  /**
+   * Saves the packed words; written to a temporary file first so a half-written cache is never read
+   *
+   * Cache layout (big-endian): magic, version, word count, then the packed words in ascending order
+   *
+   * @param cache The cache file
+   */
+  void writeCache(File cache) throws IOException {
+    File temp = new File(cache.getPath() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(intWords.length);
+      for (int intWord : intWords) {
+        out.writeInt(intWord);
+      }
+    }
+    Files.move(temp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}